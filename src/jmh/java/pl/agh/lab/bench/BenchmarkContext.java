@@ -0,0 +1,135 @@
+package pl.agh.lab.bench;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.agh.lab.Main;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.repo.HorseRepository;
+import pl.agh.lab.service.*;
+
+import java.util.*;
+
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final String[] BREEDS = {
+            "Arab", "Fryzyjski", "Haflinger", "Hucul", "Konik polski", "Malopolski", "Shetland", "Slaski"
+    };
+    private static final String[] SYLLABLES = {
+            "ka", "ro", "mi", "ta", "bel", "sto", "ra", "ni", "zor", "lu", "we", "gra"
+    };
+    private static final int CHUNK = 10_000;
+
+    private final ConfigurableApplicationContext context;
+    private final StableService service;
+    private final List<Long> stableIds = new ArrayList<>();
+    private final List<Long> horseIds = new ArrayList<>();
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.service = context.getBean(StableService.class);
+    }
+
+    public static BenchmarkContext start(int stables, int horsesPerStable, int ratingsPerHorse) throws Exception {
+        return start(stables, horsesPerStable, ratingsPerHorse, List.of("--spring.main.web-application-type=none"));
+    }
+
+    public static BenchmarkContext start(int stables, int horsesPerStable, int ratingsPerHorse,
+                                         List<String> extraArgs) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--stable.ui.enabled=false",
+                "--stable.ratings.rebuild-on-startup=false"));
+        args.addAll(extraArgs);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                .headless(true)
+                .run(args.toArray(String[]::new));
+        BenchmarkContext ctx = new BenchmarkContext(context);
+        ctx.seed(stables, horsesPerStable, ratingsPerHorse);
+        context.getBean(HorseReadModel.class).reload();
+        return ctx;
+    }
+
+    private void seed(int stables, int horsesPerStable, int ratingsPerHorse) throws Exception {
+        Random random = new Random(42);
+        HorseRepository horseRepo = context.getBean(HorseRepository.class);
+
+        for (int s = 0; s < stables; s++) {
+            Long stableId = service.addStable("Stable-" + s, horsesPerStable).getId();
+            stableIds.add(stableId);
+
+            List<HorseImportRow> rows = new ArrayList<>(Math.min(CHUNK, horsesPerStable));
+            for (int h = 0; h < horsesPerStable; h++) {
+                rows.add(HorseImportRow.valid(h + 1, stableId, randomHorse(random, h)));
+                if (rows.size() == CHUNK) {
+                    service.importHorses(rows);
+                    rows.clear();
+                }
+            }
+            if (!rows.isEmpty()) service.importHorses(rows);
+            horseIds.addAll(horseRepo.findIdsByStableId(stableId));
+        }
+
+        List<PendingRating> ratings = new ArrayList<>(CHUNK);
+        long sequence = 0;
+        Date now = new Date();
+        for (Long horseId : horseIds) {
+            for (int r = 0; r < ratingsPerHorse; r++) {
+                ratings.add(new PendingRating(++sequence, horseId, random.nextInt(6), "seed", now));
+                if (ratings.size() == CHUNK) {
+                    service.addRatingsBatch(ratings);
+                    ratings.clear();
+                }
+            }
+        }
+        if (!ratings.isEmpty()) service.addRatingsBatch(ratings);
+    }
+
+    public static Horse randomHorse(Random random, long serial) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        name.append('-').append(serial);
+        return new Horse(name.toString(),
+                BREEDS[random.nextInt(BREEDS.length)],
+                random.nextBoolean() ? HorseType.GORACOKRWISTY : HorseType.ZIMNOKRWISTY,
+                HorseCondition.values()[random.nextInt(HorseCondition.values().length)],
+                1 + random.nextInt(25),
+                1_000 + random.nextInt(100_000),
+                250 + random.nextInt(600),
+                100 + random.nextInt(90),
+                "CHIP-" + serial,
+                null);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int localPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public StableService service() {
+        return service;
+    }
+
+    public List<Long> stableIds() {
+        return stableIds;
+    }
+
+    public List<Long> horseIds() {
+        return horseIds;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,66 @@
+package pl.agh.lab.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.service.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HerdAnalyticsBenchmark {
+
+    private static final Set<HerdDimension> BREED_TYPE_STATUS =
+            EnumSet.of(HerdDimension.BREED, HerdDimension.TYPE, HerdDimension.STATUS);
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param("1000")
+    public int stables;
+
+    @Param("10000000")
+    public int horses;
+
+    private HerdAnalyticsService analytics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HerdColumns columns = new HerdColumns(null);
+        Random random = new Random(42);
+        for (int i = 0; i < horses; i++) {
+            Horse h = BenchmarkContext.randomHorse(random, i);
+            columns.add((long) i, (long) random.nextInt(stables), h.getBreed(), h.getType(), h.getStatus(),
+                    h.getPrice(), h.getWeightKg(), h.getHeightCm(), h.getAge());
+        }
+        analytics = new HerdAnalyticsService(columns, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        analytics.shutdown();
+    }
+
+    @Benchmark
+    public HerdStats herdStats() {
+        return analytics.getHerdStats();
+    }
+
+    @Benchmark
+    public List<HerdGroup> groupByBreedTypeStatus() throws Exception {
+        return analytics.getHerdGroups(BREED_TYPE_STATUS);
+    }
+
+    @Benchmark
+    public List<HerdGroup> groupByStableAndStatus() throws Exception {
+        return analytics.getHerdGroups(EnumSet.of(HerdDimension.STABLE, HerdDimension.STATUS));
+    }
+}
@@ -0,0 +1,218 @@
+package pl.agh.lab.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class HttpLoadDriver {
+
+    private static final String[] SEARCH_TERMS = {"ka", "ro", "mi", "bel", "sto", "zor", "gra"};
+
+    private final Map<String, String> options;
+
+    private HttpLoadDriver(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) throw new IllegalArgumentException("Expected --key=value but got " + arg);
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        new HttpLoadDriver(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        List<String> modes = list("modes", "platform,virtual");
+        List<Integer> levels = list("levels", "1000,2500,5000,10000").stream().map(Integer::parseInt).toList();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option("warmup", "5")));
+        Duration measure = Duration.ofSeconds(Long.parseLong(option("duration", "20")));
+        int stables = Integer.parseInt(option("stables", "20"));
+        int horses = Integer.parseInt(option("horses", "500"));
+        String pool = option("pool", "32");
+        Path output = Path.of(option("out", "target/http-load-result.csv"));
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+                System.out.printf("Skipping virtual mode: requires Java 21+, running on %d%n", Runtime.version().feature());
+                continue;
+            }
+
+            List<String> args = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--stable.db.max-connections=" + pool,
+                    "--server.tomcat.max-connections=20000",
+                    "--server.tomcat.accept-count=1000"));
+            if (mode.equals("virtual")) args.add("--spring.profiles.active=virtual");
+
+            try (BenchmarkContext ctx = BenchmarkContext.start(stables, horses, 2, args)) {
+                URI base = URI.create("http://localhost:" + ctx.localPort() + "/api");
+                for (int clients : levels) {
+                    Result result = runLevel(mode, clients, base, ctx.stableIds(), warmup, measure);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+        write(output, results);
+    }
+
+    private Result runLevel(String mode, int clients, URI base, List<Long> stableIds,
+                            Duration warmup, Duration measure) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+        try {
+            Histogram histogram = new Histogram();
+            AtomicLong errors = new AtomicLong();
+            long measureStart = System.nanoTime() + warmup.toNanos();
+            long end = measureStart + measure.toNanos();
+            CountDownLatch done = new CountDownLatch(clients);
+
+            for (int i = 0; i < clients; i++) {
+                new Client(client, executor, base, stableIds, new Random(i), measureStart, end,
+                        histogram, errors, done).next();
+            }
+            done.await();
+
+            double seconds = measure.toNanos() / 1e9;
+            return new Result(mode, clients, histogram.count() / seconds,
+                    histogram.percentile(0.50) / 1000.0, histogram.percentile(0.99) / 1000.0, errors.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Client {
+        private final HttpClient http;
+        private final Executor executor;
+        private final URI base;
+        private final List<Long> stableIds;
+        private final Random random;
+        private final long measureStart;
+        private final long end;
+        private final Histogram histogram;
+        private final AtomicLong errors;
+        private final CountDownLatch done;
+
+        Client(HttpClient http, Executor executor, URI base, List<Long> stableIds, Random random,
+               long measureStart, long end, Histogram histogram, AtomicLong errors, CountDownLatch done) {
+            this.http = http;
+            this.executor = executor;
+            this.base = base;
+            this.stableIds = stableIds;
+            this.random = random;
+            this.measureStart = measureStart;
+            this.end = end;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.done = done;
+        }
+
+        void next() {
+            if (System.nanoTime() >= end) {
+                done.countDown();
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(nextUri())
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenCompleteAsync((response, error) -> {
+                        long finished = System.nanoTime();
+                        if (start >= measureStart && finished < end) {
+                            if (error != null || response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            } else {
+                                histogram.record((finished - start) / 1000);
+                            }
+                        }
+                        next();
+                    }, executor);
+        }
+
+        private URI nextUri() {
+            Long stableId = stableIds.get(random.nextInt(stableIds.size()));
+            return switch (random.nextInt(3)) {
+                case 0 -> URI.create(base + "/stable/" + stableId + "?limit=50");
+                case 1 -> URI.create(base + "/stable/" + stableId + "/fill");
+                default -> URI.create(base + "/horse/search?limit=20&q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+            };
+        }
+    }
+
+    private static final class Histogram {
+        private static final double BASE = Math.log(1.01);
+        private static final int BUCKETS = 2400;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong total = new AtomicLong();
+
+        void record(long micros) {
+            int bucket = micros <= 1 ? 0 : (int) Math.min(BUCKETS - 1, Math.ceil(Math.log(micros) / BASE));
+            counts.incrementAndGet(bucket);
+            total.incrementAndGet();
+        }
+
+        long count() {
+            return total.get();
+        }
+
+        long percentile(double p) {
+            long target = (long) Math.ceil(total.get() * p);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= target && seen > 0) return Math.round(Math.pow(1.01, i));
+            }
+            return 0;
+        }
+    }
+
+    private record Result(String mode, int clients, double throughput, double p50Millis, double p99Millis, long errors) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s clients=%-6d throughput=%10.1f req/s  p50=%8.2f ms  p99=%8.2f ms  errors=%d",
+                    mode, clients, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+
+    private static void write(Path output, List<Result> results) throws IOException {
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output))) {
+            out.println("mode,clients,throughput,p50_ms,p99_ms,errors");
+            for (Result r : results) {
+                out.printf(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%d%n",
+                        r.mode(), r.clients(), r.throughput(), r.p50Millis(), r.p99Millis(), r.errors());
+            }
+        }
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private List<String> list(String key, String defaultValue) {
+        return Arrays.stream(option(key, defaultValue).split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package pl.agh.lab.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.StableSummary;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param("20")
+    public int stables;
+
+    @Param("1000")
+    public int horsesPerStable;
+
+    private BenchmarkContext ctx;
+    private ObjectMapper mapper;
+    private Stable stable;
+    private List<Horse> horses;
+    private List<StableSummary> summaries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ctx = BenchmarkContext.start(stables, horsesPerStable, 0);
+        mapper = ctx.bean(ObjectMapper.class);
+        Long stableId = ctx.stableIds().get(0);
+        stable = ctx.service().getStable(stableId).orElseThrow();
+        horses = ctx.service().getHorses(stableId);
+        summaries = ctx.service().getStableSummaries();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public byte[] serializeStable() throws Exception {
+        return mapper.writeValueAsBytes(stable);
+    }
+
+    @Benchmark
+    public byte[] serializeStableSummaries() throws Exception {
+        return mapper.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializeHorse() throws Exception {
+        return mapper.writeValueAsBytes(horses.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeStableHorses() throws Exception {
+        return mapper.writeValueAsBytes(horses);
+    }
+}
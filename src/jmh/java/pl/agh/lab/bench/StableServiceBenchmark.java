@@ -0,0 +1,102 @@
+package pl.agh.lab.bench;
+
+import org.openjdk.jmh.annotations.*;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.Rating;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.HorseRepository;
+import pl.agh.lab.service.HorseRatingStat;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StableServiceBenchmark {
+
+    @Param("20")
+    public int stables;
+
+    @Param("1000")
+    public int horsesPerStable;
+
+    @Param("5")
+    public int ratingsPerHorse;
+
+    @Param({"false", "true"})
+    public boolean readModel;
+
+    private BenchmarkContext ctx;
+    private HorseRepository horseRepo;
+    private Stable addTarget;
+    private Long stableId;
+    private Long horseId;
+    private Random random;
+    private long serial;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ctx = BenchmarkContext.start(stables, horsesPerStable, ratingsPerHorse, List.of(
+                "--spring.main.web-application-type=none",
+                "--stable.read-model.enabled=" + readModel));
+        horseRepo = ctx.bean(HorseRepository.class);
+        addTarget = ctx.service().addStable("Bench-Add", Integer.MAX_VALUE);
+        stableId = ctx.stableIds().get(0);
+        horseId = ctx.horseIds().get(ctx.horseIds().size() / 2);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Horse addHorse() throws Exception {
+        Horse h = BenchmarkContext.randomHorse(random, ++serial);
+        return ctx.service().addHorse(addTarget, h.getName(), h.getBreed(), h.getType(), h.getStatus(), h.getAge(),
+                h.getPrice(), h.getWeightKg(), h.getHeightCm(), h.getMicrochipId(), h.getAcquisitionDate());
+    }
+
+    @Benchmark
+    public List<Horse> filterHorsesByFragment() {
+        return ctx.service().filterHorses(stableId, "bel", null);
+    }
+
+    @Benchmark
+    public List<Horse> filterHorsesByStatus() {
+        return ctx.service().filterHorses(stableId, null, HorseCondition.TRENING);
+    }
+
+    @Benchmark
+    public List<Stable> sortStablesByCurrentLoad() {
+        return ctx.service().sortStablesByCurrentLoad();
+    }
+
+    @Benchmark
+    public List<HorseRatingStat> ratingStatsForStable() {
+        return ctx.service().getHorseRatingStatsForStable(stableId);
+    }
+
+    @Benchmark
+    public List<HorseRatingStat> ratingStatsForStableUncached() {
+        return horseRepo.findRatingStatsForStable(stableId);
+    }
+
+    @Benchmark
+    public Rating addRatingToHorse() throws Exception {
+        return ctx.service().addRatingToHorse(horseId, random.nextInt(6), "bench");
+    }
+
+    @Benchmark
+    public long exportCsv() throws Exception {
+        return ctx.service().exportHorsesCsv(stableId, Writer.nullWriter());
+    }
+}
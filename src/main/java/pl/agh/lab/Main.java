@@ -1,9 +1,11 @@
 package pl.agh.lab;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import pl.agh.lab.service.StableService;
 import pl.agh.lab.ui.LoginFrame;
 
@@ -11,6 +13,7 @@ import javax.swing.*;
 import java.awt.*;
 
 @SpringBootApplication
+@EnableScheduling
 public class Main {
 
     public static void main(String[] args) {
@@ -18,8 +21,9 @@ public class Main {
                 .headless(false)
                 .run(args);
     }
-    
+
     @Bean
+    @ConditionalOnProperty(name = "stable.ui.enabled", havingValue = "true", matchIfMissing = true)
     public CommandLineRunner run(StableService service) {
         return args -> {
             SwingUtilities.invokeLater(() -> {
@@ -0,0 +1,116 @@
+package pl.agh.lab.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.service.HorseCsv;
+import pl.agh.lab.service.HorseImportRow;
+import pl.agh.lab.service.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+final class HorseImportParser {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "stableId", "name", "breed", "type", "status", "age", "price", "weightKg", "heightCm");
+
+    private HorseImportParser() {
+    }
+
+    static List<HorseImportRow> parseCsv(BufferedReader reader, Long defaultStableId) throws IOException, ValidationException {
+        HorseCsv.RecordReader records = new HorseCsv.RecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) throw new ValidationException("CSV header is required");
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (required.equals("stableId") && defaultStableId != null) continue;
+            if (!columns.containsKey(required)) throw new ValidationException("Missing CSV column: " + required);
+        }
+
+        List<HorseImportRow> rows = new ArrayList<>();
+        List<String> fields;
+        while ((fields = records.next()) != null) {
+            int lineNo = records.line();
+            if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+            try {
+                Horse horse = new Horse(
+                        field(fields, columns, "name"),
+                        field(fields, columns, "breed"),
+                        HorseType.valueOf(field(fields, columns, "type").trim()),
+                        HorseCondition.valueOf(field(fields, columns, "status").trim()),
+                        Integer.parseInt(field(fields, columns, "age").trim()),
+                        Double.parseDouble(field(fields, columns, "price").trim()),
+                        Double.parseDouble(field(fields, columns, "weightKg").trim()),
+                        Double.parseDouble(field(fields, columns, "heightCm").trim()),
+                        blankToNull(field(fields, columns, "microchipId")),
+                        parseDate(field(fields, columns, "acquisitionDate")));
+                rows.add(HorseImportRow.valid(lineNo, stableId(field(fields, columns, "stableId"), defaultStableId), horse));
+            } catch (IllegalArgumentException | NullPointerException | DateTimeParseException e) {
+                rows.add(HorseImportRow.rejected(lineNo, describe(e)));
+            }
+        }
+        return rows;
+    }
+
+    static List<HorseImportRow> parseNdjson(BufferedReader reader, ObjectMapper mapper) throws IOException {
+        List<HorseImportRow> rows = new ArrayList<>();
+        int lineNo = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            try {
+                StableController.HorseDTO dto = mapper.readValue(line, StableController.HorseDTO.class);
+                if (dto.stableId() == null) {
+                    rows.add(HorseImportRow.rejected(lineNo, "stableId is required"));
+                    continue;
+                }
+                rows.add(HorseImportRow.valid(lineNo, dto.stableId(), dto.toHorse()));
+            } catch (JsonProcessingException e) {
+                rows.add(HorseImportRow.rejected(lineNo, "Malformed JSON"));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                rows.add(HorseImportRow.rejected(lineNo, describe(e)));
+            }
+        }
+        return rows;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        return fields.get(index);
+    }
+
+    private static Long stableId(String value, Long defaultStableId) {
+        if (value == null || value.isBlank()) {
+            if (defaultStableId == null) throw new IllegalArgumentException("stableId is required");
+            return defaultStableId;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static Date parseDate(String value) {
+        if (value == null || value.isBlank()) return null;
+        return Date.from(Instant.parse(value.trim()));
+    }
+
+    private static String describe(RuntimeException e) {
+        if (e instanceof NumberFormatException) return "Invalid number: " + e.getMessage();
+        if (e instanceof NullPointerException) return "Missing value";
+        return e.getMessage();
+    }
+}
@@ -1,32 +1,70 @@
 package pl.agh.lab.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pl.agh.lab.model.*;
 import pl.agh.lab.service.*;
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
 public class StableController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IMPORT_NDJSON = "application/x-ndjson";
+
     private final StableService service;
+    private final RatingAggregateRepairJob ratingRepairJob;
+    private final StableLoadReconcileJob loadReconcileJob;
+    private final ObjectMapper objectMapper;
+    private final RatingIngestionQueue ratingQueue;
+    private final boolean asyncRatings;
+    private final StableChangeFeed changeFeed;
+    private final long changeStreamTimeoutMs;
+    private final ObjectWriter changeWriter;
+    private final HerdAnalyticsService analytics;
+    private final StableVersions versions;
 
-    public StableController(StableService service) {
+    public StableController(StableService service, RatingAggregateRepairJob ratingRepairJob,
+                            StableLoadReconcileJob loadReconcileJob, ObjectMapper objectMapper,
+                            RatingIngestionQueue ratingQueue,
+                            @Value("${stable.ratings.ingest.async:false}") boolean asyncRatings,
+                            StableChangeFeed changeFeed,
+                            @Value("${stable.changes.sse-timeout-ms:1800000}") long changeStreamTimeoutMs,
+                            HerdAnalyticsService analytics, StableVersions versions) {
         this.service = service;
+        this.ratingRepairJob = ratingRepairJob;
+        this.loadReconcileJob = loadReconcileJob;
+        this.objectMapper = objectMapper;
+        this.ratingQueue = ratingQueue;
+        this.asyncRatings = asyncRatings;
+        this.changeFeed = changeFeed;
+        this.changeStreamTimeoutMs = changeStreamTimeoutMs;
+        this.changeWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.analytics = analytics;
+        this.versions = versions;
     }
 
     @PostMapping("/horse")
     public ResponseEntity<?> addHorse(@RequestBody HorseDTO dto) {
         try {
-            Horse horse = new Horse(dto.name, dto.breed, HorseType.valueOf(dto.type),
-                    HorseCondition.valueOf(dto.status), dto.age, dto.price,
-                    dto.weightKg, dto.heightCm, dto.microchipId, null);
+            Horse horse = dto.toHorse();
 
             Horse created = service.addHorse(dto.stableId, horse);
             return new ResponseEntity<>(created, HttpStatus.CREATED);
@@ -39,6 +77,31 @@ public class StableController {
         }
     }
 
+    @PostMapping(value = "/horse/import", consumes = {"text/csv", IMPORT_NDJSON})
+    public ResponseEntity<?> importHorses(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          @RequestParam(required = false) Long stableId,
+                                          InputStream body) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<HorseImportRow> rows = contentType.startsWith(IMPORT_NDJSON)
+                    ? HorseImportParser.parseNdjson(reader, objectMapper)
+                    : HorseImportParser.parseCsv(reader, stableId);
+            return ResponseEntity.ok(service.importHorses(rows));
+        } catch (ValidationException | IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/horse/search")
+    public ResponseEntity<?> searchHorses(@RequestParam("q") String query,
+                                          @RequestParam(defaultValue = "" + StableService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(service.searchHorses(query, limit));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/horse/{id}")
     public ResponseEntity<?> deleteHorse(@PathVariable Long id) {
         try {
@@ -49,6 +112,32 @@ public class StableController {
         }
     }
 
+    @PutMapping("/horse/{id}/status")
+    public ResponseEntity<?> changeHorseStatus(@PathVariable Long id, @RequestBody StatusDTO dto) {
+        try {
+            HorseCondition status = dto.status() == null ? null : HorseCondition.valueOf(dto.status());
+            return ResponseEntity.ok(service.changeHorseStatus(id, status));
+        } catch (HorseOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ValidationException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges() throws IOException {
+        SseEmitter emitter = new SseEmitter(changeStreamTimeoutMs);
+        emitter.send(SseEmitter.event().comment("connected"));
+        StableChangeFeed.Subscription subscription = changeFeed.subscribe(change -> emitter.send(SseEmitter.event()
+                .id(Long.toString(change.sequence()))
+                .name(change.type().name())
+                .data(changeWriter.writeValueAsString(change))));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
     @GetMapping("/horse/rating/{id}")
     public ResponseEntity<?> getHorseAvgRating(@PathVariable Long id) {
         Double avg = service.getAverageRatingForHorse(id);
@@ -59,48 +148,132 @@ public class StableController {
     @PostMapping("/horse/rating")
     public ResponseEntity<?> addRating(@RequestBody RatingDTO dto) {
         try {
+            if (asyncRatings) {
+                long sequence = ratingQueue.submit(dto.horseId, dto.value, dto.description);
+                return ResponseEntity.accepted().body(Map.of("sequence", sequence));
+            }
             service.addRatingToHorse(dto.horseId, dto.value, dto.description);
             return ResponseEntity.status(HttpStatus.CREATED).build();
         } catch (HorseOperationException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RatingQueueFullException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @PostMapping("/horse/ratings")
+    public ResponseEntity<?> addRatings(@RequestBody List<RatingDTO> dtos) {
+        try {
+            List<RatingIngestionQueue.RatingRequest> requests = dtos.stream()
+                    .map(d -> new RatingIngestionQueue.RatingRequest(d.horseId, d.value, d.description))
+                    .toList();
+            long[] sequences = ratingQueue.submitAll(requests);
+            return ResponseEntity.accepted().body(Map.of("sequences", sequences));
+        } catch (HorseOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RatingQueueFullException e) {
+            return tooManyRequests(e);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> tooManyRequests(RatingQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @PostMapping("/horse/rating/rebuild")
+    public ResponseEntity<?> rebuildRatingAggregates() {
+        return ResponseEntity.ok(Map.of("horsesUpdated", ratingRepairJob.run()));
+    }
+
     @GetMapping("/stable")
-    public List<Stable> getAllStables() {
-        return service.getAllStables();
+    public ResponseEntity<?> getAllStables(WebRequest request) {
+        String etag = versions.globalTag();
+        if (request.checkNotModified(etag)) return notModified(etag);
+        return ResponseEntity.ok().eTag(etag).body(service.getStableSummaries());
+    }
+
+    @PostMapping("/stable/load/reconcile")
+    public ResponseEntity<?> reconcileStableLoads() {
+        return ResponseEntity.ok(Map.of("stablesUpdated", loadReconcileJob.run()));
+    }
+
+    @GetMapping("/stable/totals")
+    public HerdTotals getHerdTotals() {
+        return service.getHerdTotals();
+    }
+
+    @GetMapping("/stable/aggregates/check")
+    public ResponseEntity<?> checkStableAggregates() {
+        List<StableAggregateDrift> drift = loadReconcileJob.check();
+        return ResponseEntity.ok(Map.of("consistent", drift.isEmpty(), "drift", drift));
+    }
+
+    @GetMapping("/stable/by-load")
+    public ResponseEntity<?> getStablesByLoad(@RequestParam(required = false) Integer top,
+                                              @RequestParam(required = false) Double minLoad,
+                                              @RequestParam(required = false) Double maxLoad) {
+        try {
+            return ResponseEntity.ok(service.getStableLoadRanking(top, minLoad, maxLoad));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/stable/{id}")
-    public ResponseEntity<?> getHorsesInStable(@PathVariable Long id) {
+    public ResponseEntity<?> getHorsesInStable(@PathVariable Long id,
+                                               @RequestParam(defaultValue = "" + StableService.DEFAULT_PAGE_SIZE) int limit,
+                                               @RequestParam(required = false) String after,
+                                               WebRequest request) {
+        String etag = versions.stableTag(id);
+        if (service.getStableSummary(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Stable not found");
+        }
+        if (request.checkNotModified(etag)) return notModified(etag);
         try {
-            return ResponseEntity.ok(service.getHorses(id));
+            HorsePage page = service.getHorses(id, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.hasNext()) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getHorses());
         } catch (StableOperationException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @GetMapping(value = "/stable/{id}/csv", produces = "text/csv")
-    public ResponseEntity<?> getStableCsv(@PathVariable Long id) {
-        try {
-            service.getStable(id).orElseThrow(() -> new StableOperationException("Stable not found"));
+    public ResponseEntity<StreamingResponseBody> getStableCsv(@PathVariable Long id,
+                                          @RequestParam(defaultValue = "false") boolean gzip,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (!service.stableExists(id)) {
+            byte[] message = "Stable not found".getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(out -> out.write(message));
+        }
 
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            PrintWriter writer = new PrintWriter(out);
-            writer.println("name,breed,age,price");
-            for(Horse h : service.getHorses(id)) {
-                writer.printf("%s,%s,%d,%.2f%n", h.getName(), h.getBreed(), h.getAge(), h.getPrice());
-            }
+        boolean compress = gzip || (acceptEncoding != null && acceptEncoding.contains("gzip"));
+        StreamingResponseBody body = out -> {
+            OutputStream target = compress ? new GZIPOutputStream(out, 8192, true) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 8192);
+            service.exportHorsesCsv(id, writer);
             writer.flush();
+            if (compress) ((GZIPOutputStream) target).finish();
+        };
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=stable_" + id + ".csv")
-                    .body(out.toByteArray());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stable_" + id + ".csv")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+        return response.body(body);
     }
 
     @PostMapping("/stable")
@@ -124,25 +297,45 @@ public class StableController {
     }
 
     @GetMapping("/stable/{id}/fill")
-    public ResponseEntity<?> getStableFill(@PathVariable Long id) {
-        return service.getStable(id)
-                .map(s -> {
-                    long count = 0;
-                    try {
-                        count = service.getHorses(id).size();
-                    } catch (StableOperationException e) {
-                    }
-                    return ResponseEntity.ok(Map.of(
-                            "stableName", s.getStableName(),
-                            "current", count,
-                            "max", s.getMaxCapacity(),
-                            "percentage", (double)count / s.getMaxCapacity()
-                    ));
-                })
-                .orElse(ResponseEntity.notFound().build());
-    }
-
-    public record HorseDTO(Long stableId, String name, String breed, String type, String status, int age, double price, double weightKg, double heightCm, String microchipId) {}
+    public ResponseEntity<?> getStableFill(@PathVariable Long id, WebRequest request) {
+        String etag = versions.stableTag(id);
+        Optional<StableSummary> summary = service.getStableSummary(id);
+        if (summary.isEmpty()) return ResponseEntity.notFound().build();
+        if (request.checkNotModified(etag)) return notModified(etag);
+        StableSummary s = summary.get();
+        return ResponseEntity.ok().eTag(etag).body(Map.of(
+                "stableName", s.getStableName(),
+                "current", s.getCurrentLoad(),
+                "max", s.getMaxCapacity(),
+                "percentage", (double) s.getCurrentLoad() / s.getMaxCapacity()
+        ));
+    }
+
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    @GetMapping("/analytics/herd")
+    public ResponseEntity<?> getHerdAnalytics(@RequestParam(required = false) String groupBy) {
+        try {
+            return ResponseEntity.ok(analytics.getHerdGroups(HerdDimension.parse(groupBy)));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, BoundedCache.Stats> getCacheStats() {
+        return service.getCacheStats();
+    }
+
+    public record HorseDTO(Long stableId, String name, String breed, String type, String status, int age, double price, double weightKg, double heightCm, String microchipId) {
+        Horse toHorse() {
+            return new Horse(name, breed, HorseType.valueOf(type), HorseCondition.valueOf(status),
+                    age, price, weightKg, heightCm, microchipId, null);
+        }
+    }
     public record RatingDTO(Long horseId, int value, String description) {}
     public record StableDTO(String name, int capacity) {}
+    public record StatusDTO(String status) {}
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package pl.agh.lab.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import pl.agh.lab.service.BoundedCache;
+import pl.agh.lab.service.StableService;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final StableService service;
+
+    public CacheMetrics(StableService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, BoundedCache<?, ?>> entry : service.getCaches().entrySet()) {
+            String name = entry.getKey();
+            BoundedCache<?, ?> cache = entry.getValue();
+            FunctionCounter.builder("stable.cache.gets", cache, stat(BoundedCache.Stats::hits))
+                    .tag("cache", name).tag("result", "hit").register(registry);
+            FunctionCounter.builder("stable.cache.gets", cache, stat(BoundedCache.Stats::misses))
+                    .tag("cache", name).tag("result", "miss").register(registry);
+            FunctionCounter.builder("stable.cache.evictions", cache, stat(BoundedCache.Stats::evictions))
+                    .tag("cache", name).register(registry);
+            Gauge.builder("stable.cache.size", cache, stat(BoundedCache.Stats::size))
+                    .tag("cache", name).register(registry);
+            Gauge.builder("stable.cache.hit.ratio", cache, stat(BoundedCache.Stats::hitRate))
+                    .tag("cache", name).register(registry);
+        }
+    }
+
+    private static ToDoubleFunction<BoundedCache<?, ?>> stat(ToDoubleFunction<BoundedCache.Stats> value) {
+        return cache -> value.applyAsDouble(cache.stats());
+    }
+}
@@ -0,0 +1,25 @@
+package pl.agh.lab.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import pl.agh.lab.service.StableChangeFeed;
+
+@Component
+public class ChangeFeedMetrics implements MeterBinder {
+
+    private final StableChangeFeed feed;
+
+    public ChangeFeedMetrics(StableChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stable.changes.subscribers", feed, StableChangeFeed::subscriberCount).register(registry);
+        FunctionCounter.builder("stable.changes.published", feed, StableChangeFeed::lastSequence).register(registry);
+        FunctionCounter.builder("stable.changes.overflows", feed, StableChangeFeed::overflowCount).register(registry);
+    }
+}
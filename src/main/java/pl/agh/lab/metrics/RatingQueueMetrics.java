@@ -0,0 +1,27 @@
+package pl.agh.lab.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import pl.agh.lab.service.RatingIngestionQueue;
+
+@Component
+public class RatingQueueMetrics implements MeterBinder {
+
+    private final RatingIngestionQueue queue;
+
+    public RatingQueueMetrics(RatingIngestionQueue queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stable.ratings.pending", queue, RatingIngestionQueue::getPending).register(registry);
+        Gauge.builder("stable.ratings.retrying", queue, RatingIngestionQueue::getRetrying).register(registry);
+        FunctionCounter.builder("stable.ratings.written", queue, RatingIngestionQueue::getWritten).register(registry);
+        FunctionCounter.builder("stable.ratings.retried", queue, RatingIngestionQueue::getRetried).register(registry);
+        FunctionCounter.builder("stable.ratings.dropped", queue, RatingIngestionQueue::getDropped).register(registry);
+    }
+}
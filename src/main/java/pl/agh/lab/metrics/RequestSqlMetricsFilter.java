@@ -0,0 +1,68 @@
+package pl.agh.lab.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+    private static final String STATS_ATTRIBUTE = RequestSqlMetricsFilter.class.getName() + ".stats";
+
+    private final MeterRegistry registry;
+
+    public RequestSqlMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = RequestSqlStats.begin();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        } else {
+            RequestSqlStats.resume(stats);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.end();
+            if (!isAsyncStarted(request)) record(request, stats);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, RequestSqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.sql.duration")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,57 @@
+package pl.agh.lab.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong elapsedMillis = new AtomicLong();
+
+    private RequestSqlStats() {
+    }
+
+    static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void resume(RequestSqlStats stats) {
+        CURRENT.set(stats);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedMillis) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements.incrementAndGet();
+            stats.elapsedMillis.addAndGet(elapsedMillis);
+        }
+    }
+
+    static Runnable propagate(Runnable task) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats == null) return task;
+        return () -> {
+            RequestSqlStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public long getStatements() { return statements.get(); }
+    public long getElapsedMillis() { return elapsedMillis.get(); }
+}
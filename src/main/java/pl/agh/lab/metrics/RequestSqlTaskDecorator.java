@@ -0,0 +1,13 @@
+package pl.agh.lab.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RequestSqlTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return RequestSqlStats.propagate(runnable);
+    }
+}
@@ -0,0 +1,29 @@
+package pl.agh.lab.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class SqlMetricsDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlStatementMetrics> metrics;
+
+    public SqlMetricsDataSourcePostProcessor(ObjectProvider<SqlStatementMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(metrics.getObject())
+                    .build();
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,46 @@
+package pl.agh.lab.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SqlStatementMetrics implements QueryExecutionListener {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public SqlStatementMetrics(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats.record(execInfo.getElapsedTime());
+
+        MeterRegistry meters = registry.getIfAvailable();
+        if (meters == null) return;
+        QueryType type = queryInfoList.isEmpty()
+                ? QueryType.OTHER
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+        Timer.builder("db.statements")
+                .tag("type", type.name().toLowerCase(Locale.ROOT))
+                .tag("batch", String.valueOf(execInfo.isBatch()))
+                .tag("success", String.valueOf(execInfo.isSuccess()))
+                .register(meters)
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -5,13 +5,20 @@ import java.util.*;
 import java.util.Comparator;
 import java.io.Serializable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "horses")
+@Table(name = "horses", indexes = {
+        @Index(name = "idx_horses_stable", columnList = "stable_id"),
+        @Index(name = "idx_horses_stable_identity", columnList = "stable_id, name, breed, age"),
+        @Index(name = "idx_horses_stable_identity_key", columnList = "stable_id, name_key, breed_key, age"),
+        @Index(name = "idx_horses_stable_status", columnList = "stable_id, status")
+})
 public class Horse implements Comparable<Horse>, Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "horses_seq")
+    @SequenceGenerator(name = "horses_seq", sequenceName = "horses_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -20,6 +27,12 @@ public class Horse implements Comparable<Horse>, Serializable {
     @Column(nullable = false)
     private String breed;
 
+    @Column(name = "name_key", insertable = false, updatable = false)
+    private String nameKey;
+
+    @Column(name = "breed_key", insertable = false, updatable = false)
+    private String breedKey;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private HorseType type;
@@ -47,6 +60,14 @@ public class Horse implements Comparable<Horse>, Serializable {
     @Column(nullable = false)
     private Date acquisitionDate;
 
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long ratingCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long ratingSum;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stable_id")
     @JsonIgnore
@@ -100,10 +121,25 @@ public class Horse implements Comparable<Horse>, Serializable {
     public double getHeightCm() { return heightCm; }
     public String getMicrochipId() { return microchipId; }
     public Date getAcquisitionDate() { return acquisitionDate; }
+    public long getRatingCount() { return ratingCount; }
+    public long getRatingSum() { return ratingSum; }
+
+    public Double getAverageRating() {
+        return ratingCount == 0 ? null : (double) ratingSum / ratingCount;
+    }
 
     public Stable getStable() { return stable; }
     public void setStable(Stable stable) { this.stable = stable; }
 
+    public Horse detachedCopy(HorseCondition status, long ratingCount, long ratingSum) {
+        Horse copy = new Horse(name, breed, type, status, age, price, weightKg, heightCm, microchipId, acquisitionDate);
+        copy.id = id;
+        copy.stable = stable;
+        copy.ratingCount = ratingCount;
+        copy.ratingSum = ratingSum;
+        return copy;
+    }
+
     public void setStatus(HorseCondition status) {
         this.status = Objects.requireNonNull(status);
     }
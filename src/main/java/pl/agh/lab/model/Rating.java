@@ -7,11 +7,12 @@ import java.util.Locale;
 import java.util.Objects;
 
 @Entity
-@Table(name = "ratings")
+@Table(name = "ratings", indexes = @Index(name = "idx_ratings_horse_date", columnList = "horse_id, rating_date"))
 public class Rating implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ratings_seq")
+    @SequenceGenerator(name = "ratings_seq", sequenceName = "ratings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "rating_value", nullable = false)
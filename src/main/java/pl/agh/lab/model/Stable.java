@@ -1,6 +1,8 @@
 package pl.agh.lab.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.io.Serializable;
@@ -22,13 +24,26 @@ public class Stable implements Serializable {
             mappedBy = "stable",
             cascade = CascadeType.ALL,
             orphanRemoval = true,
-            fetch = FetchType.EAGER
+            fetch = FetchType.LAZY
     )
+    @JsonIgnore
     private List<Horse> horseList = new ArrayList<>();
 
     @Column(nullable = false)
     private int maxCapacity;
 
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long currentLoad;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private double totalValue;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private double totalWeight;
+
     protected Stable() {
     }
 
@@ -39,6 +54,16 @@ public class Stable implements Serializable {
         this.maxCapacity = maxCapacity;
     }
 
+    public static Stable detached(Long id, String stableName, int maxCapacity, long currentLoad,
+                                  double totalValue, double totalWeight) {
+        Stable stable = new Stable(stableName, maxCapacity);
+        stable.id = id;
+        stable.currentLoad = currentLoad;
+        stable.totalValue = totalValue;
+        stable.totalWeight = totalWeight;
+        return stable;
+    }
+
     public Long getId() { return id; }
 
 
@@ -56,16 +81,21 @@ public class Stable implements Serializable {
         }
         horseList.add(horse);
         horse.setStable(this);
+        currentLoad++;
+        totalValue += horse.getPrice();
+        totalWeight += horse.getWeightKg();
     }
 
 
 
+    @JsonIgnore
     public boolean isEmpty() { return horseList.isEmpty(); }
+    @JsonIgnore
     public List<Horse> getHorseList() { return Collections.unmodifiableList(horseList); }
     public int getMaxCapacity() { return maxCapacity; }
+    public long getCurrentLoad() { return currentLoad; }
     public String getStableName() { return stableName; }
 
-    public double totalValue() {
-        return horseList.stream().mapToDouble(Horse::getPrice).sum();
-    }
+    public double totalValue() { return totalValue; }
+    public double getTotalWeight() { return totalWeight; }
 }
@@ -1,26 +1,146 @@
 package pl.agh.lab.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import pl.agh.lab.model.Horse;
 import pl.agh.lab.model.HorseCondition;
 import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.HorseRatingStat;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface HorseRepository extends JpaRepository<Horse, Long> {
 
+    String FILTER_WHERE = "WHERE h.stable = :stable " +
+            "AND (:fragment IS NULL OR LOWER(h.name) LIKE %:fragment% OR LOWER(h.breed) LIKE %:fragment%) " +
+            "AND (:status IS NULL OR h.status = :status) ";
+
+    String FILTER = "SELECT h FROM Horse h " + FILTER_WHERE;
+
+    String FILTER_IDS_WHERE = "WHERE h.id IN :ids AND (:status IS NULL OR h.status = :status) ";
+
+    String FILTER_IDS = "SELECT h FROM Horse h " + FILTER_IDS_WHERE;
+
+    String KEYSET_AFTER = "AND (h.name > :name OR (h.name = :name AND (h.breed > :breed " +
+            "OR (h.breed = :breed AND (h.age > :age OR (h.age = :age AND h.id > :id)))))) ";
+
+    String KEYSET_ORDER = "ORDER BY h.name, h.breed, h.age, h.id";
+
     List<Horse> findByStable(Stable stable);
 
     long countByStable(Stable stable);
 
-    @Query("SELECT COUNT(h) > 0 FROM Horse h WHERE h.stable = :stable AND LOWER(h.name) = LOWER(:name) AND LOWER(h.breed) = LOWER(:breed) AND h.age = :age")
+    @Query("SELECT COUNT(h) > 0 FROM Horse h WHERE h.stable = :stable AND h.nameKey = LOWER(:name) AND h.breedKey = LOWER(:breed) AND h.age = :age")
     boolean existsDuplicate(@Param("stable") Stable stable, @Param("name") String name, @Param("breed") String breed, @Param("age") int age);
 
-    @Query("SELECT h FROM Horse h WHERE h.stable = :stable " +
-            "AND (:fragment IS NULL OR LOWER(h.name) LIKE %:fragment% OR LOWER(h.breed) LIKE %:fragment%) " +
-            "AND (:status IS NULL OR h.status = :status) " +
-            "ORDER BY h.name, h.breed, h.age")
+    @Query("SELECT LOWER(h.name), LOWER(h.breed), h.age FROM Horse h WHERE h.stable.id = :stableId")
+    List<Object[]> findIdentityKeys(@Param("stableId") Long stableId);
+
+    @Query(FILTER + "ORDER BY h.name, h.breed, h.age")
     List<Horse> filter(@Param("stable") Stable stable, @Param("fragment") String fragment, @Param("status") HorseCondition status);
-}
\ No newline at end of file
+
+    @Query(FILTER + KEYSET_ORDER)
+    List<Horse> filterPage(@Param("stable") Stable stable, @Param("fragment") String fragment,
+                           @Param("status") HorseCondition status, Limit limit);
+
+    @Query(FILTER + KEYSET_AFTER + KEYSET_ORDER)
+    List<Horse> filterPageAfter(@Param("stable") Stable stable, @Param("fragment") String fragment,
+                                @Param("status") HorseCondition status,
+                                @Param("name") String name, @Param("breed") String breed,
+                                @Param("age") int age, @Param("id") long id, Limit limit);
+
+    @Query(FILTER_IDS + KEYSET_ORDER)
+    List<Horse> filterPageByIds(@Param("ids") Collection<Long> ids, @Param("status") HorseCondition status, Limit limit);
+
+    @Query(FILTER_IDS + KEYSET_AFTER + KEYSET_ORDER)
+    List<Horse> filterPageAfterByIds(@Param("ids") Collection<Long> ids, @Param("status") HorseCondition status,
+                                     @Param("name") String name, @Param("breed") String breed,
+                                     @Param("age") int age, @Param("id") long id, Limit limit);
+
+    @Query("SELECT COUNT(h) FROM Horse h " + FILTER_WHERE)
+    long countFiltered(@Param("stable") Stable stable, @Param("fragment") String fragment,
+                       @Param("status") HorseCondition status);
+
+    @Query("SELECT COUNT(h) FROM Horse h " + FILTER_IDS_WHERE)
+    long countFilteredByIds(@Param("ids") Collection<Long> ids, @Param("status") HorseCondition status);
+
+    @Query(FILTER)
+    List<Horse> filterWindow(@Param("stable") Stable stable, @Param("fragment") String fragment,
+                             @Param("status") HorseCondition status, Pageable pageable);
+
+    @Query(FILTER_IDS)
+    List<Horse> filterWindowByIds(@Param("ids") Collection<Long> ids, @Param("status") HorseCondition status,
+                                  Pageable pageable);
+
+    @Query("SELECT h FROM Horse h WHERE LOWER(h.name) LIKE %:fragment% OR LOWER(h.breed) LIKE %:fragment% " + KEYSET_ORDER)
+    List<Horse> searchByFragment(@Param("fragment") String fragment, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h.id, h.stable.id, h.name, h.breed FROM Horse h")
+    Stream<Object[]> streamSearchKeys();
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h.id, h.stable.id, h.breed, h.type, h.status, h.price, h.weightKg, h.heightCm, h.age FROM Horse h")
+    Stream<Object[]> streamAnalyticsColumns();
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM Horse h WHERE h.stable.id = :stableId " + KEYSET_ORDER)
+    Stream<Horse> streamByStableId(@Param("stableId") Long stableId);
+
+    @Query("SELECT h.id FROM Horse h WHERE h.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h.id, h.stable.id FROM Horse h WHERE h.id IN :ids")
+    List<Object[]> findStableIdsByHorseIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h.id FROM Horse h WHERE h.stable.id = :stableId")
+    List<Long> findIdsByStableId(@Param("stableId") Long stableId);
+
+    @Modifying
+    @Query("DELETE FROM Horse h WHERE h.stable.id = :stableId")
+    int deleteByStableId(@Param("stableId") Long stableId);
+
+    @Modifying
+    @Query("UPDATE Horse h SET h.ratingCount = h.ratingCount + :count, h.ratingSum = h.ratingSum + :sum WHERE h.id = :horseId")
+    int recordRatings(@Param("horseId") Long horseId, @Param("count") long count, @Param("sum") long sum);
+
+    @Modifying
+    @Query("UPDATE Horse h SET h.ratingCount = h.ratingCount + :count, h.ratingSum = h.ratingSum + :sum WHERE h.id IN :horseIds")
+    int recordRatingsForHorses(@Param("horseIds") Collection<Long> horseIds, @Param("count") long count, @Param("sum") long sum);
+
+    @Query("SELECT h.id, h.ratingCount, h.ratingSum FROM Horse h WHERE h.id IN :horseIds")
+    List<Object[]> findRatingTotals(@Param("horseIds") Collection<Long> horseIds);
+
+    @Query("SELECT CASE WHEN h.ratingCount = 0 THEN NULL ELSE h.ratingSum * 1.0 / h.ratingCount END " +
+            "FROM Horse h WHERE h.id = :horseId")
+    Double getAverageRating(@Param("horseId") Long horseId);
+
+    @Query("SELECT new pl.agh.lab.service.HorseRatingStat(h.id, h.name, h.ratingCount, " +
+            "h.ratingSum * 1.0 / h.ratingCount) " +
+            "FROM Horse h WHERE h.stable.id = :stableId AND h.ratingCount > 0 ORDER BY h.id")
+    List<HorseRatingStat> findRatingStatsForStable(@Param("stableId") Long stableId);
+
+    @Modifying
+    @Query("UPDATE Horse h SET " +
+            "h.ratingCount = (SELECT COUNT(r) FROM Rating r WHERE r.horse = h), " +
+            "h.ratingSum = (SELECT COALESCE(SUM(r.value), 0) FROM Rating r WHERE r.horse = h)")
+    int rebuildRatingAggregates();
+}
@@ -1,13 +1,97 @@
 package pl.agh.lab.repo;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.HerdTotals;
+import pl.agh.lab.service.StableAggregateDrift;
+import pl.agh.lab.service.StableLoad;
+import pl.agh.lab.service.StableSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface StableRepository extends JpaRepository<Stable, Long> {
 
+    String LOAD_RANKING = "SELECT new pl.agh.lab.service.StableLoad(s.id, s.stableName, s.maxCapacity, " +
+            "s.currentLoad, s.currentLoad * 1.0 / s.maxCapacity) " +
+            "FROM Stable s " +
+            "WHERE s.currentLoad * 1.0 / s.maxCapacity BETWEEN :minLoad AND :maxLoad ";
+
+    String SUMMARY = "SELECT new pl.agh.lab.service.StableSummary(s.id, s.stableName, s.maxCapacity, " +
+            "s.currentLoad, s.totalValue) " +
+            "FROM Stable s ";
+
+    String AGGREGATE_DRIFT = "SELECT new pl.agh.lab.service.StableAggregateDrift(s.id, s.stableName, " +
+            "s.currentLoad, COUNT(h.id), s.totalValue, COALESCE(SUM(h.price), 0.0), " +
+            "s.totalWeight, COALESCE(SUM(h.weightKg), 0.0)) " +
+            "FROM Stable s LEFT JOIN s.horseList h " +
+            "GROUP BY s.id, s.stableName, s.currentLoad, s.totalValue, s.totalWeight " +
+            "HAVING s.currentLoad <> COUNT(h.id) " +
+            "OR ABS(s.totalValue - COALESCE(SUM(h.price), 0.0)) > :tolerance " +
+            "OR ABS(s.totalWeight - COALESCE(SUM(h.weightKg), 0.0)) > :tolerance " +
+            "ORDER BY s.id";
+
     boolean existsByStableName(String stableName);
 
-    @Query("SELECT COALESCE(SUM(h.price), 0.0) FROM Horse h")
+    @Query("SELECT COALESCE(SUM(s.totalValue), 0.0) FROM Stable s")
     double totalHerdValue();
-}
\ No newline at end of file
+
+    @Query("SELECT new pl.agh.lab.service.HerdTotals(COUNT(s), COALESCE(SUM(s.currentLoad), 0), " +
+            "COALESCE(SUM(s.totalValue), 0.0), COALESCE(SUM(s.totalWeight), 0.0)) FROM Stable s")
+    HerdTotals findHerdTotals();
+
+    @Query(AGGREGATE_DRIFT)
+    List<StableAggregateDrift> findAggregateDrift(@Param("tolerance") double tolerance);
+
+    @Query(LOAD_RANKING + "ORDER BY s.currentLoad * 1.0 / s.maxCapacity ASC, s.id ASC")
+    List<StableLoad> findLoadRankingAsc(@Param("minLoad") double minLoad, @Param("maxLoad") double maxLoad, Limit limit);
+
+    @Query(LOAD_RANKING + "ORDER BY s.currentLoad * 1.0 / s.maxCapacity DESC, s.id ASC")
+    List<StableLoad> findLoadRankingDesc(@Param("minLoad") double minLoad, @Param("maxLoad") double maxLoad, Limit limit);
+
+    @Query(SUMMARY + "ORDER BY s.id")
+    List<StableSummary> findSummaries();
+
+    @Query(SUMMARY + "ORDER BY s.currentLoad * 1.0 / s.maxCapacity ASC, s.id ASC")
+    List<StableSummary> findSummariesByLoad();
+
+    @Query(SUMMARY + "WHERE s.id = :id")
+    Optional<StableSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(SUMMARY + "WHERE s.id IN :ids")
+    List<StableSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.maxCapacity - s.currentLoad FROM Stable s WHERE s.id = :id")
+    Optional<Long> findFreeCapacity(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Stable s WHERE s.id = :id")
+    int deleteStableById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Stable s SET s.currentLoad = s.currentLoad + :count, " +
+            "s.totalValue = s.totalValue + CAST(:value AS double), " +
+            "s.totalWeight = s.totalWeight + CAST(:weight AS double) " +
+            "WHERE s.id = :id AND s.currentLoad + :count <= s.maxCapacity")
+    int reserveCapacity(@Param("id") Long id, @Param("count") long count,
+                        @Param("value") double value, @Param("weight") double weight);
+
+    @Modifying
+    @Query("UPDATE Stable s SET s.currentLoad = s.currentLoad - :count, " +
+            "s.totalValue = s.totalValue - CAST(:value AS double), " +
+            "s.totalWeight = s.totalWeight - CAST(:weight AS double) " +
+            "WHERE s.id = :id")
+    int releaseCapacity(@Param("id") Long id, @Param("count") long count,
+                        @Param("value") double value, @Param("weight") double weight);
+
+    @Modifying
+    @Query("UPDATE Stable s SET s.currentLoad = (SELECT COUNT(h) FROM Horse h WHERE h.stable = s), " +
+            "s.totalValue = (SELECT COALESCE(SUM(h.price), 0.0) FROM Horse h WHERE h.stable = s), " +
+            "s.totalWeight = (SELECT COALESCE(SUM(h.weightKg), 0.0) FROM Horse h WHERE h.stable = s)")
+    int reconcileLoads();
+}
@@ -0,0 +1,81 @@
+package pl.agh.lab.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public BoundedCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttl must be > 0");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.get();
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        long lookups = hits + misses;
+        return new Stats(hits, misses, evictions, entries.size(), lookups == 0 ? 0.0 : (double) hits / lookups);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    public record Stats(long hits, long misses, long evictions, int size, double hitRate) {}
+}
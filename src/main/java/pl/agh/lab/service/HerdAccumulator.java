@@ -0,0 +1,137 @@
+package pl.agh.lab.service;
+
+import java.util.Arrays;
+
+final class HerdAccumulator {
+
+    private static final int PRICE = 0;
+    private static final int WEIGHT = 3;
+    private static final int HEIGHT = 6;
+    private static final int AGE = 9;
+    private static final int CELLS = 12;
+
+    private int[] tableKeys = new int[16];
+    private int[] tableIndexes = new int[16];
+    private int[] groups = new int[8];
+    private long[] counts = new long[8];
+    private double[] cells = new double[8 * CELLS];
+    private int size;
+
+    void accept(HerdColumns.Columns columns, int slot, int group) {
+        int index = indexOf(group);
+        if (index < 0) index = addGroup(group);
+        counts[index]++;
+        double[] c = cells;
+        int base = index * CELLS;
+        add(c, base + PRICE, columns.price(slot));
+        add(c, base + WEIGHT, columns.weightKg(slot));
+        add(c, base + HEIGHT, columns.heightCm(slot));
+        add(c, base + AGE, columns.age(slot));
+    }
+
+    void merge(HerdAccumulator other) {
+        for (int i = 0; i < other.size; i++) {
+            int index = indexOf(other.groups[i]);
+            if (index < 0) index = addGroup(other.groups[i]);
+            counts[index] += other.counts[i];
+            for (int metric = 0; metric < CELLS; metric += 3) {
+                int to = index * CELLS + metric;
+                int from = i * CELLS + metric;
+                cells[to] += other.cells[from];
+                cells[to + 1] = Math.min(cells[to + 1], other.cells[from + 1]);
+                cells[to + 2] = Math.max(cells[to + 2], other.cells[from + 2]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int group(int index) {
+        return groups[index];
+    }
+
+    long count(int index) {
+        return counts[index];
+    }
+
+    MetricStats price(int index) {
+        return stats(index, PRICE);
+    }
+
+    MetricStats weightKg(int index) {
+        return stats(index, WEIGHT);
+    }
+
+    MetricStats heightCm(int index) {
+        return stats(index, HEIGHT);
+    }
+
+    MetricStats age(int index) {
+        return stats(index, AGE);
+    }
+
+    private int addGroup(int group) {
+        if (size == groups.length) {
+            int capacity = size * 2;
+            groups = Arrays.copyOf(groups, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            cells = Arrays.copyOf(cells, capacity * CELLS);
+        }
+        int index = size++;
+        groups[index] = group;
+        for (int metric = 0; metric < CELLS; metric += 3) {
+            cells[index * CELLS + metric + 1] = Double.POSITIVE_INFINITY;
+            cells[index * CELLS + metric + 2] = Double.NEGATIVE_INFINITY;
+        }
+        if (size * 2 > tableKeys.length) {
+            resize(tableKeys.length * 2);
+        } else {
+            insert(group, index);
+        }
+        return index;
+    }
+
+    private int indexOf(int group) {
+        int mask = tableKeys.length - 1;
+        for (int i = hash(group) & mask; tableKeys[i] != 0; i = (i + 1) & mask) {
+            if (tableKeys[i] == group + 1) return tableIndexes[i];
+        }
+        return -1;
+    }
+
+    private void insert(int group, int index) {
+        int mask = tableKeys.length - 1;
+        int i = hash(group) & mask;
+        while (tableKeys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        tableKeys[i] = group + 1;
+        tableIndexes[i] = index;
+    }
+
+    private void resize(int capacity) {
+        tableKeys = new int[capacity];
+        tableIndexes = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            insert(groups[i], i);
+        }
+    }
+
+    private static int hash(int group) {
+        int h = group * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void add(double[] cells, int cell, double value) {
+        cells[cell] += value;
+        if (value < cells[cell + 1]) cells[cell + 1] = value;
+        if (value > cells[cell + 2]) cells[cell + 2] = value;
+    }
+
+    private MetricStats stats(int index, int metric) {
+        int cell = index * CELLS + metric;
+        return MetricStats.of(counts[index], cells[cell], cells[cell + 1], cells[cell + 2]);
+    }
+}
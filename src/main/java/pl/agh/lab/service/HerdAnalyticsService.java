@@ -0,0 +1,184 @@
+package pl.agh.lab.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+@Service
+public class HerdAnalyticsService {
+
+    private static final int MAX_GROUPS = 1 << 20;
+    private static final int MIN_LEAF_SLOTS = 16_384;
+    private static final int LEAVES_PER_THREAD = 4;
+
+    private static final Comparator<HerdGroup> GROUP_ORDER = Comparator
+            .comparing(HerdGroup::breed, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(HerdGroup::type, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(HerdGroup::status, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(HerdGroup::stableId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final HerdColumns herdColumns;
+    private final ForkJoinPool pool;
+
+    public HerdAnalyticsService(HerdColumns herdColumns,
+                                @Value("${stable.analytics.parallelism:0}") int parallelism) {
+        this.herdColumns = herdColumns;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return herdColumns.isReady();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public HerdStats getHerdStats() {
+        List<HerdGroup> groups = aggregate(EnumSet.noneOf(HerdDimension.class));
+        return groups.isEmpty() ? HerdStats.empty() : groups.get(0).stats();
+    }
+
+    public Optional<HerdStats> getStableStats(Long stableId) {
+        return herdColumns.read(columns -> {
+            OptionalInt code = columns.findStableCode(stableId);
+            if (code.isEmpty()) return Optional.empty();
+            int wanted = code.getAsInt();
+            HerdAccumulator acc = new HerdAccumulator();
+            for (int slot = 0; slot < columns.slots(); slot++) {
+                if (columns.isLive(slot) && columns.stableCode(slot) == wanted) acc.accept(columns, slot, 0);
+            }
+            return acc.size() == 0 ? Optional.empty() : Optional.of(toGroup(acc, 0, GroupKey.NONE, columns).stats());
+        });
+    }
+
+    public double getTotalHerdValue() {
+        return herdColumns.read(columns -> {
+            double total = 0;
+            for (int slot = 0; slot < columns.slots(); slot++) {
+                if (columns.isLive(slot)) total += columns.price(slot);
+            }
+            return total;
+        });
+    }
+
+    public List<HerdGroup> getHerdGroups(Set<HerdDimension> groupBy) throws ValidationException {
+        List<HerdGroup> groups = aggregate(groupBy);
+        if (groups == null) throw new ValidationException("groupBy produces more than " + MAX_GROUPS + " groups");
+        return groups;
+    }
+
+    private List<HerdGroup> aggregate(Set<HerdDimension> groupBy) {
+        return herdColumns.read(columns -> {
+            GroupKey key = GroupKey.of(columns, groupBy);
+            if (key == null) return null;
+
+            int leafSlots = Math.max(MIN_LEAF_SLOTS, columns.slots() / (pool.getParallelism() * LEAVES_PER_THREAD));
+            HerdAccumulator acc = pool.invoke(new ScanTask(columns, key, 0, columns.slots(), leafSlots));
+
+            List<HerdGroup> groups = new ArrayList<>(acc.size());
+            for (int i = 0; i < acc.size(); i++) {
+                groups.add(toGroup(acc, i, key, columns));
+            }
+            groups.sort(GROUP_ORDER);
+            return groups;
+        });
+    }
+
+    private static HerdGroup toGroup(HerdAccumulator acc, int index, GroupKey key, HerdColumns.Columns columns) {
+        int group = acc.group(index);
+        return new HerdGroup(
+                key.breed == 0 ? null : columns.breed(group / key.breed % key.breeds),
+                key.type == 0 ? null : HerdColumns.Columns.type(group / key.type % key.types),
+                key.status == 0 ? null : HerdColumns.Columns.status(group / key.status % key.statuses),
+                key.stable == 0 ? null : columns.stableId(group / key.stable % key.stables),
+                acc.count(index), acc.price(index), acc.weightKg(index), acc.heightCm(index), acc.age(index));
+    }
+
+    private record GroupKey(int breeds, int breed, int types, int type, int statuses, int status,
+                            int stables, int stable) {
+
+        static final GroupKey NONE = new GroupKey(1, 0, 1, 0, 1, 0, 1, 0);
+
+        static GroupKey of(HerdColumns.Columns columns, Set<HerdDimension> groupBy) {
+            int breeds = Math.max(1, columns.breedCount());
+            int types = HorseType.values().length;
+            int statuses = HorseCondition.values().length;
+            int stables = Math.max(1, columns.stableCount());
+
+            long multiplier = 1;
+            int stable = 0;
+            int status = 0;
+            int type = 0;
+            int breed = 0;
+            if (groupBy.contains(HerdDimension.STABLE)) {
+                stable = (int) multiplier;
+                multiplier *= stables;
+            }
+            if (multiplier <= MAX_GROUPS && groupBy.contains(HerdDimension.STATUS)) {
+                status = (int) multiplier;
+                multiplier *= statuses;
+            }
+            if (multiplier <= MAX_GROUPS && groupBy.contains(HerdDimension.TYPE)) {
+                type = (int) multiplier;
+                multiplier *= types;
+            }
+            if (multiplier <= MAX_GROUPS && groupBy.contains(HerdDimension.BREED)) {
+                breed = (int) multiplier;
+                multiplier *= breeds;
+            }
+            if (multiplier > MAX_GROUPS) return null;
+            return new GroupKey(breeds, breed, types, type, statuses, status, stables, stable);
+        }
+
+        int of(HerdColumns.Columns columns, int slot) {
+            return columns.breedCode(slot) * breed + columns.typeCode(slot) * type
+                    + columns.statusCode(slot) * status + columns.stableCode(slot) * stable;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<HerdAccumulator> {
+        private final HerdColumns.Columns columns;
+        private final GroupKey key;
+        private final int from;
+        private final int to;
+        private final int leafSlots;
+
+        ScanTask(HerdColumns.Columns columns, GroupKey key, int from, int to, int leafSlots) {
+            this.columns = columns;
+            this.key = key;
+            this.from = from;
+            this.to = to;
+            this.leafSlots = leafSlots;
+        }
+
+        @Override
+        protected HerdAccumulator compute() {
+            if (to - from <= leafSlots) {
+                HerdAccumulator acc = new HerdAccumulator();
+                for (int slot = from; slot < to; slot++) {
+                    if (columns.isLive(slot)) acc.accept(columns, slot, key.of(columns, slot));
+                }
+                return acc;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(columns, key, from, middle, leafSlots);
+            left.fork();
+            HerdAccumulator right = new ScanTask(columns, key, middle, to, leafSlots).compute();
+            HerdAccumulator merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package pl.agh.lab.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.repo.HorseRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Component
+public class HerdColumns {
+
+    private static final Logger log = LoggerFactory.getLogger(HerdColumns.class);
+
+    private static final HorseType[] TYPES = HorseType.values();
+    private static final HorseCondition[] STATUSES = HorseCondition.values();
+    private static final byte DEAD = -1;
+
+    private final HorseRepository horseRepo;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Columns columns = new Columns();
+    private volatile Columns snapshot;
+    private volatile boolean ready;
+    private List<Runnable> pendingDuringBuild;
+
+    public HerdColumns(HorseRepository horseRepo) {
+        this.horseRepo = horseRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            pendingDuringBuild = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+
+        Columns fresh = new Columns();
+        try (Stream<Object[]> rows = horseRepo.streamAnalyticsColumns()) {
+            rows.forEach(r -> fresh.put((Long) r[0], (Long) r[1], (String) r[2], (HorseType) r[3],
+                    (HorseCondition) r[4], (Double) r[5], (Double) r[6], (Double) r[7], (Integer) r[8]));
+        }
+
+        lock.lock();
+        try {
+            columns = fresh;
+            snapshot = null;
+            pendingDuringBuild.forEach(Runnable::run);
+            pendingDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Loaded {} horses into herd columns in {} ms", fresh.liveCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void add(Long horseId, Long stableId, String breed, HorseType type, HorseCondition status,
+                    double price, double weightKg, double heightCm, int age) {
+        mutate(() -> columns.put(horseId, stableId, breed, type, status, price, weightKg, heightCm, age));
+    }
+
+    public void remove(Long horseId) {
+        mutate(() -> columns.remove(horseId));
+    }
+
+    public void changeStatus(Long horseId, HorseCondition status) {
+        mutate(() -> columns.setStatus(horseId, status));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public <T> T read(Function<Columns, T> query) {
+        return query.apply(snapshot());
+    }
+
+    private Columns snapshot() {
+        Columns frozen = snapshot;
+        if (frozen != null) return frozen;
+        lock.lock();
+        try {
+            if (snapshot == null) snapshot = columns.freeze();
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void mutate(Runnable change) {
+        lock.lock();
+        try {
+            change.run();
+            snapshot = null;
+            if (pendingDuringBuild != null) pendingDuringBuild.add(change);
+            if (columns.deadCount > 1024 && columns.deadCount > columns.liveCount) {
+                columns = columns.compact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static final class Columns {
+
+        private long[] ids = new long[1024];
+        private int[] stableCodes = new int[1024];
+        private int[] breedCodes = new int[1024];
+        private byte[] types = new byte[1024];
+        private byte[] statuses = new byte[1024];
+        private double[] prices = new double[1024];
+        private double[] weights = new double[1024];
+        private double[] heights = new double[1024];
+        private int[] ages = new int[1024];
+        private final Map<Long, Integer> slotById;
+
+        private final List<String> breeds;
+        private final Map<String, Integer> breedCodeByName;
+        private long[] stableIds = new long[16];
+        private final Map<Long, Integer> stableCodeById;
+        private int stableCount;
+
+        private int size;
+        private int liveCount;
+        private int deadCount;
+        private boolean statusesShared;
+
+        Columns() {
+            slotById = new HashMap<>();
+            breeds = new ArrayList<>();
+            breedCodeByName = new HashMap<>();
+            stableCodeById = new HashMap<>();
+        }
+
+        private Columns(Columns source) {
+            ids = source.ids;
+            stableCodes = source.stableCodes;
+            breedCodes = source.breedCodes;
+            types = source.types;
+            statuses = source.statuses;
+            prices = source.prices;
+            weights = source.weights;
+            heights = source.heights;
+            ages = source.ages;
+            slotById = Map.of();
+            breeds = List.copyOf(source.breeds);
+            breedCodeByName = Map.of();
+            stableIds = Arrays.copyOf(source.stableIds, source.stableCount);
+            stableCodeById = Map.copyOf(source.stableCodeById);
+            stableCount = source.stableCount;
+            size = source.size;
+            liveCount = source.liveCount;
+            deadCount = source.deadCount;
+        }
+
+        public int slots() {
+            return size;
+        }
+
+        public int liveCount() {
+            return liveCount;
+        }
+
+        public boolean isLive(int slot) {
+            return statuses[slot] != DEAD;
+        }
+
+        public double price(int slot) {
+            return prices[slot];
+        }
+
+        public double weightKg(int slot) {
+            return weights[slot];
+        }
+
+        public double heightCm(int slot) {
+            return heights[slot];
+        }
+
+        public int age(int slot) {
+            return ages[slot];
+        }
+
+        public int typeCode(int slot) {
+            return types[slot];
+        }
+
+        public int statusCode(int slot) {
+            return statuses[slot];
+        }
+
+        public int breedCode(int slot) {
+            return breedCodes[slot];
+        }
+
+        public int stableCode(int slot) {
+            return stableCodes[slot];
+        }
+
+        public int breedCount() {
+            return breeds.size();
+        }
+
+        public String breed(int code) {
+            return breeds.get(code);
+        }
+
+        public int stableCount() {
+            return stableCount;
+        }
+
+        public Long stableId(int code) {
+            return stableIds[code] == -1 ? null : stableIds[code];
+        }
+
+        public OptionalInt findStableCode(Long stableId) {
+            Integer code = stableCodeById.get(stableId == null ? -1L : stableId);
+            return code == null ? OptionalInt.empty() : OptionalInt.of(code);
+        }
+
+        public static HorseType type(int code) {
+            return TYPES[code];
+        }
+
+        public static HorseCondition status(int code) {
+            return STATUSES[code];
+        }
+
+        void put(Long id, Long stableId, String breed, HorseType type, HorseCondition status,
+                 double price, double weightKg, double heightCm, int age) {
+            remove(id);
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                stableCodes = Arrays.copyOf(stableCodes, capacity);
+                breedCodes = Arrays.copyOf(breedCodes, capacity);
+                types = Arrays.copyOf(types, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+            }
+            int slot = size++;
+            ids[slot] = id;
+            stableCodes[slot] = stableCode(stableId == null ? -1 : stableId);
+            breedCodes[slot] = breedCodeByName.computeIfAbsent(breed, b -> {
+                breeds.add(b);
+                return breeds.size() - 1;
+            });
+            types[slot] = (byte) type.ordinal();
+            statuses[slot] = (byte) status.ordinal();
+            prices[slot] = price;
+            weights[slot] = weightKg;
+            heights[slot] = heightCm;
+            ages[slot] = age;
+            slotById.put(id, slot);
+            liveCount++;
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return;
+            writableStatuses()[slot] = DEAD;
+            liveCount--;
+            deadCount++;
+        }
+
+        void setStatus(Long id, HorseCondition status) {
+            Integer slot = slotById.get(id);
+            if (slot != null) writableStatuses()[slot] = (byte) status.ordinal();
+        }
+
+        Columns freeze() {
+            statusesShared = true;
+            return new Columns(this);
+        }
+
+        private byte[] writableStatuses() {
+            if (statusesShared) {
+                statuses = statuses.clone();
+                statusesShared = false;
+            }
+            return statuses;
+        }
+
+        private int stableCode(long stableId) {
+            Integer code = stableCodeById.get(stableId);
+            if (code != null) return code;
+            if (stableCount == stableIds.length) stableIds = Arrays.copyOf(stableIds, stableCount * 2);
+            stableIds[stableCount] = stableId;
+            stableCodeById.put(stableId, stableCount);
+            return stableCount++;
+        }
+
+        Columns compact() {
+            Columns fresh = new Columns();
+            for (int slot = 0; slot < size; slot++) {
+                if (statuses[slot] == DEAD) continue;
+                fresh.put(ids[slot], stableId(stableCodes[slot]), breeds.get(breedCodes[slot]), TYPES[types[slot]],
+                        STATUSES[statuses[slot]], prices[slot], weights[slot], heights[slot], ages[slot]);
+            }
+            return fresh;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pl.agh.lab.service;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+public enum HerdDimension {
+    BREED, TYPE, STATUS, STABLE;
+
+    public static Set<HerdDimension> parse(String groupBy) throws ValidationException {
+        Set<HerdDimension> dimensions = EnumSet.noneOf(HerdDimension.class);
+        if (groupBy == null || groupBy.isBlank()) return dimensions;
+        for (String part : groupBy.split(",")) {
+            String name = part.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) continue;
+            try {
+                dimensions.add(valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unknown groupBy dimension '" + part.trim() + "'");
+            }
+        }
+        return dimensions;
+    }
+}
@@ -0,0 +1,14 @@
+package pl.agh.lab.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HerdGroup(String breed, HorseType type, HorseCondition status, Long stableId, long horses,
+                        MetricStats price, MetricStats weightKg, MetricStats heightCm, MetricStats age) {
+
+    HerdStats stats() {
+        return new HerdStats(horses, price, weightKg, heightCm, age);
+    }
+}
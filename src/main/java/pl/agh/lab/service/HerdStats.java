@@ -0,0 +1,9 @@
+package pl.agh.lab.service;
+
+public record HerdStats(long horses, MetricStats price, MetricStats weightKg, MetricStats heightCm, MetricStats age) {
+
+    static HerdStats empty() {
+        MetricStats none = MetricStats.of(0, 0, 0, 0);
+        return new HerdStats(0, none, none, none, none);
+    }
+}
@@ -0,0 +1,32 @@
+package pl.agh.lab.service;
+
+public class HerdTotals {
+
+    private final long stableCount;
+    private final long horseCount;
+    private final double totalValue;
+    private final double totalWeight;
+
+    public HerdTotals(long stableCount, long horseCount, double totalValue, double totalWeight) {
+        this.stableCount = stableCount;
+        this.horseCount = horseCount;
+        this.totalValue = totalValue;
+        this.totalWeight = totalWeight;
+    }
+
+    public long getStableCount() {
+        return stableCount;
+    }
+
+    public long getHorseCount() {
+        return horseCount;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+}
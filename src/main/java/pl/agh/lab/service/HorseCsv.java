@@ -0,0 +1,103 @@
+package pl.agh.lab.service;
+
+import pl.agh.lab.model.Horse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class HorseCsv {
+
+    public static final String HEADER =
+            "name,breed,type,status,age,price,weightKg,heightCm,microchipId,acquisitionDate";
+
+    private HorseCsv() {
+    }
+
+    public static void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    public static void writeRow(Writer writer, Horse h) throws IOException {
+        StringBuilder row = new StringBuilder(128);
+        appendField(row, h.getName()).append(',');
+        appendField(row, h.getBreed()).append(',');
+        row.append(h.getType()).append(',');
+        row.append(h.getStatus()).append(',');
+        row.append(h.getAge()).append(',');
+        row.append(decimal(h.getPrice())).append(',');
+        row.append(decimal(h.getWeightKg())).append(',');
+        row.append(decimal(h.getHeightCm())).append(',');
+        appendField(row, h.getMicrochipId()).append(',');
+        row.append(h.getAcquisitionDate().toInstant()).append('\n');
+        writer.append(row);
+    }
+
+    public static final class RecordReader {
+
+        private final Reader in;
+        private int line = 1;
+        private int recordLine;
+
+        public RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        public int line() {
+            return recordLine;
+        }
+
+        public List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) return null;
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        c = in.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static String decimal(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static StringBuilder appendField(StringBuilder row, String value) {
+        if (value == null) return row;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) return row.append(value);
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
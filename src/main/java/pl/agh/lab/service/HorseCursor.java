@@ -0,0 +1,68 @@
+package pl.agh.lab.service;
+
+import pl.agh.lab.model.Horse;
+
+import java.io.*;
+import java.util.Base64;
+
+public class HorseCursor {
+
+    private final String name;
+    private final String breed;
+    private final int age;
+    private final long id;
+
+    public HorseCursor(String name, String breed, int age, long id) {
+        this.name = name;
+        this.breed = breed;
+        this.age = age;
+        this.id = id;
+    }
+
+    public static HorseCursor of(Horse horse) {
+        return new HorseCursor(horse.getName(), horse.getBreed(), horse.getAge(), horse.getId());
+    }
+
+    public static HorseCursor decode(String token) throws ValidationException {
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            HorseCursor cursor = new HorseCursor(in.readUTF(), in.readUTF(), in.readInt(), in.readLong());
+            if (in.available() > 0) throw new IOException("trailing bytes");
+            return cursor;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(name);
+            out.writeUTF(breed);
+            out.writeInt(age);
+            out.writeLong(id);
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBreed() {
+        return breed;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
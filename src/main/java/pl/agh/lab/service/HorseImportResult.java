@@ -0,0 +1,24 @@
+package pl.agh.lab.service;
+
+import java.util.List;
+
+public class HorseImportResult {
+
+    private final long accepted;
+    private final List<Rejection> rejected;
+
+    public HorseImportResult(long accepted, List<Rejection> rejected) {
+        this.accepted = accepted;
+        this.rejected = List.copyOf(rejected);
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public List<Rejection> getRejected() {
+        return rejected;
+    }
+
+    public record Rejection(int line, String reason) {}
+}
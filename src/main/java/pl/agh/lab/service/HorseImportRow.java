@@ -0,0 +1,18 @@
+package pl.agh.lab.service;
+
+import pl.agh.lab.model.Horse;
+
+public record HorseImportRow(int line, Long stableId, Horse horse, String error) {
+
+    public static HorseImportRow valid(int line, Long stableId, Horse horse) {
+        return new HorseImportRow(line, stableId, horse, null);
+    }
+
+    public static HorseImportRow rejected(int line, String error) {
+        return new HorseImportRow(line, null, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,28 @@
+package pl.agh.lab.service;
+
+import pl.agh.lab.model.Horse;
+
+import java.util.List;
+
+public class HorsePage {
+
+    private final List<Horse> horses;
+    private final String nextCursor;
+
+    public HorsePage(List<Horse> horses, String nextCursor) {
+        this.horses = List.copyOf(horses);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Horse> getHorses() {
+        return horses;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
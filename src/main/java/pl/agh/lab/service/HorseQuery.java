@@ -0,0 +1,17 @@
+package pl.agh.lab.service;
+
+import org.springframework.data.domain.Sort;
+import pl.agh.lab.model.HorseCondition;
+
+public record HorseQuery(Long stableId, String fragment, HorseCondition status, HorseSortKey sortKey, boolean ascending) {
+
+    public HorseQuery withSort(HorseSortKey sortKey, boolean ascending) {
+        return new HorseQuery(stableId, fragment, status, sortKey, ascending);
+    }
+
+    Sort sort() {
+        if (sortKey == null) return Sort.by("name", "breed", "age", "id");
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, sortKey.getProperty()).and(Sort.by(direction, "id"));
+    }
+}
@@ -2,16 +2,22 @@ package pl.agh.lab.service;
 
 public class HorseRatingStat {
 
+    private final Long horseId;
     private final String horseName;
     private final long count;
     private final double average;
 
-    public HorseRatingStat(String horseName, long count, double average) {
+    public HorseRatingStat(Long horseId, String horseName, long count, double average) {
+        this.horseId = horseId;
         this.horseName = horseName;
         this.count = count;
         this.average = average;
     }
 
+    public Long getHorseId() {
+        return horseId;
+    }
+
     public String getHorseName() {
         return horseName;
     }
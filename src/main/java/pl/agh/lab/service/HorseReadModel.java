@@ -0,0 +1,367 @@
+package pl.agh.lab.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.HorseRepository;
+import pl.agh.lab.repo.StableRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+@Component
+public class HorseReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(HorseReadModel.class);
+
+    private static final Comparator<Horse> ORDER = Comparator
+            .comparing(Horse::getName)
+            .thenComparing(Horse::getBreed)
+            .thenComparingInt(Horse::getAge)
+            .thenComparing(Horse::getId);
+
+    private static final Comparator<StableEntry> BY_LOAD = Comparator
+            .comparingDouble(StableEntry::loadRatio)
+            .thenComparing(StableEntry::id);
+
+    private final boolean enabled;
+    private final HorseRepository horseRepo;
+    private final StableRepository stableRepo;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Map<Long, StableEntry> stables;
+    private List<Runnable> pendingDuringLoad;
+
+    public HorseReadModel(HorseRepository horseRepo, StableRepository stableRepo,
+                          @Value("${stable.read-model.enabled:false}") boolean enabled) {
+        this.horseRepo = horseRepo;
+        this.stableRepo = stableRepo;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStartup() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isActive() {
+        return enabled && stables != null;
+    }
+
+    public void load() {
+        loadLock.lock();
+        try {
+            synchronized (this) {
+                pendingDuringLoad = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Map<Long, List<Horse>> byStable = new HashMap<>();
+            for (Horse horse : horseRepo.findAll()) {
+                if (horse.getStable() == null) continue;
+                byStable.computeIfAbsent(horse.getStable().getId(), id -> new ArrayList<>()).add(copy(horse));
+            }
+
+            Map<Long, StableEntry> loaded = new HashMap<>();
+            for (StableSummary s : stableRepo.findSummaries()) {
+                List<Horse> horses = byStable.getOrDefault(s.getId(), List.of());
+                Horse[] sorted = horses.toArray(Horse[]::new);
+                Arrays.sort(sorted, ORDER);
+                loaded.put(s.getId(), StableEntry.of(s.getId(), s.getStableName(), s.getMaxCapacity(), sorted));
+            }
+
+            synchronized (this) {
+                stables = Collections.unmodifiableMap(loaded);
+                pendingDuringLoad.forEach(Runnable::run);
+            }
+            log.info("Loaded read model with {} stables in {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            synchronized (this) {
+                pendingDuringLoad = null;
+            }
+            loadLock.unlock();
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void reload() {
+        if (isActive()) load();
+    }
+
+    public Optional<List<Horse>> horses(Long stableId) {
+        StableEntry entry = stables.get(stableId);
+        if (entry == null) return Optional.empty();
+        List<Horse> result = new ArrayList<>(entry.horses.length);
+        for (Horse h : entry.horses) {
+            result.add(copy(h));
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<HorsePage> page(Long stableId, HorseCursor after, int limit) {
+        StableEntry entry = stables.get(stableId);
+        if (entry == null) return Optional.empty();
+
+        int from = after == null ? 0 : entry.indexAfter(after);
+        int to = Math.min(entry.horses.length, from + limit);
+        List<Horse> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(copy(entry.horses[i]));
+        }
+        String next = to < entry.horses.length && !page.isEmpty() ? HorseCursor.of(page.get(page.size() - 1)).encode() : null;
+        return Optional.of(new HorsePage(page, next));
+    }
+
+    public List<Horse> filter(Long stableId, String fragment, HorseCondition status) {
+        StableEntry entry = stables.get(stableId);
+        if (entry == null) return new ArrayList<>();
+
+        List<Horse> result = new ArrayList<>();
+        if (status != null) {
+            for (int i : entry.byStatus.get(status)) {
+                if (entry.matches(i, fragment)) result.add(copy(entry.horses[i]));
+            }
+        } else {
+            for (int i = 0; i < entry.horses.length; i++) {
+                if (entry.matches(i, fragment)) result.add(copy(entry.horses[i]));
+            }
+        }
+        return result;
+    }
+
+    public Optional<StableSummary> summary(Long stableId) {
+        StableEntry entry = stables.get(stableId);
+        return entry == null ? Optional.empty() : Optional.of(entry.summary());
+    }
+
+    public List<StableSummary> summaries() {
+        List<StableEntry> entries = new ArrayList<>(stables.values());
+        entries.sort(Comparator.comparing(StableEntry::id));
+        return entries.stream().map(StableEntry::summary).toList();
+    }
+
+    public List<StableSummary> summariesByLoad() {
+        return stableIdsByLoad().stream().map(id -> stables.get(id).summary()).toList();
+    }
+
+    public List<Long> stableIdsByLoad() {
+        return entriesByLoad().stream().map(StableEntry::id).toList();
+    }
+
+    public List<Stable> stablesByLoad() {
+        return entriesByLoad().stream().map(StableEntry::stable).toList();
+    }
+
+    private List<StableEntry> entriesByLoad() {
+        List<StableEntry> entries = new ArrayList<>(stables.values());
+        entries.sort(BY_LOAD);
+        return entries;
+    }
+
+    public void stableAdded(Long stableId, String name, int maxCapacity) {
+        apply(() -> {
+            if (!stables.containsKey(stableId)) update(stableId, StableEntry.of(stableId, name, maxCapacity, new Horse[0]));
+        });
+    }
+
+    public void stableRemoved(Long stableId) {
+        apply(() -> update(stableId, null));
+    }
+
+    public void horsesAdded(Long stableId, Collection<Horse> added) {
+        if (added.isEmpty()) return;
+        List<Horse> copies = added.stream().map(HorseReadModel::copy).toList();
+        apply(() -> {
+            StableEntry entry = stables.get(stableId);
+            if (entry == null) return;
+
+            Set<Long> present = new HashSet<>();
+            for (Horse h : entry.horses) {
+                present.add(h.getId());
+            }
+            List<Horse> merged = new ArrayList<>(Arrays.asList(entry.horses));
+            for (Horse h : copies) {
+                if (present.add(h.getId())) merged.add(h);
+            }
+            if (merged.size() == entry.horses.length) return;
+            Horse[] sorted = merged.toArray(Horse[]::new);
+            Arrays.sort(sorted, ORDER);
+            update(stableId, entry.with(sorted));
+        });
+    }
+
+    public void horseRemoved(Long stableId, Long horseId) {
+        apply(() -> {
+            StableEntry entry = stables.get(stableId);
+            if (entry == null) return;
+            int index = entry.indexOf(horseId);
+            if (index < 0) return;
+
+            Horse[] horses = new Horse[entry.horses.length - 1];
+            System.arraycopy(entry.horses, 0, horses, 0, index);
+            System.arraycopy(entry.horses, index + 1, horses, index, horses.length - index);
+            update(stableId, entry.with(horses));
+        });
+    }
+
+    public void horseStatusChanged(Long stableId, Long horseId, HorseCondition status) {
+        apply(() -> replace(stableId, horseId, h -> h.getStatus() == status ? h
+                : h.detachedCopy(status, h.getRatingCount(), h.getRatingSum())));
+    }
+
+    public void ratingTotalsChanged(Long stableId, Long horseId, long ratingCount, long ratingSum) {
+        apply(() -> replace(stableId, horseId, h -> ratingCount <= h.getRatingCount() ? h
+                : h.detachedCopy(h.getStatus(), ratingCount, ratingSum)));
+    }
+
+    private static Horse copy(Horse horse) {
+        return horse.detachedCopy(horse.getStatus(), horse.getRatingCount(), horse.getRatingSum());
+    }
+
+    private synchronized void apply(Runnable change) {
+        if (!enabled) return;
+        if (pendingDuringLoad != null) pendingDuringLoad.add(change);
+        if (stables != null) change.run();
+    }
+
+    private void replace(Long stableId, Long horseId, UnaryOperator<Horse> change) {
+        StableEntry entry = stables.get(stableId);
+        if (entry == null) return;
+        int index = entry.indexOf(horseId);
+        if (index < 0) return;
+
+        Horse changed = change.apply(entry.horses[index]);
+        if (changed == entry.horses[index]) return;
+        Horse[] horses = entry.horses.clone();
+        horses[index] = changed;
+        update(stableId, entry.with(horses));
+    }
+
+    private void update(Long stableId, StableEntry entry) {
+        Map<Long, StableEntry> next = new HashMap<>(stables);
+        if (entry == null) {
+            next.remove(stableId);
+        } else {
+            next.put(stableId, entry);
+        }
+        stables = Collections.unmodifiableMap(next);
+    }
+
+    private static final class StableEntry {
+        private final Long id;
+        private final String name;
+        private final int maxCapacity;
+        private final double totalValue;
+        private final double totalWeight;
+        private final Horse[] horses;
+        private final String[] names;
+        private final String[] breeds;
+        private final EnumMap<HorseCondition, int[]> byStatus;
+
+        private StableEntry(Long id, String name, int maxCapacity, Horse[] horses) {
+            this.id = id;
+            this.name = name;
+            this.maxCapacity = maxCapacity;
+            this.horses = horses;
+            this.names = new String[horses.length];
+            this.breeds = new String[horses.length];
+
+            double value = 0;
+            double weight = 0;
+            int[] counts = new int[HorseCondition.values().length];
+            for (int i = 0; i < horses.length; i++) {
+                names[i] = horses[i].getName().toLowerCase(Locale.ROOT);
+                breeds[i] = horses[i].getBreed().toLowerCase(Locale.ROOT);
+                value += horses[i].getPrice();
+                weight += horses[i].getWeightKg();
+                counts[horses[i].getStatus().ordinal()]++;
+            }
+            this.totalValue = value;
+            this.totalWeight = weight;
+
+            this.byStatus = new EnumMap<>(HorseCondition.class);
+            for (HorseCondition c : HorseCondition.values()) {
+                byStatus.put(c, new int[counts[c.ordinal()]]);
+            }
+            int[] fill = new int[counts.length];
+            for (int i = 0; i < horses.length; i++) {
+                int s = horses[i].getStatus().ordinal();
+                byStatus.get(horses[i].getStatus())[fill[s]++] = i;
+            }
+        }
+
+        static StableEntry of(Long id, String name, int maxCapacity, Horse[] sorted) {
+            return new StableEntry(id, name, maxCapacity, sorted);
+        }
+
+        StableEntry with(Horse[] sorted) {
+            return new StableEntry(id, name, maxCapacity, sorted);
+        }
+
+        Long id() {
+            return id;
+        }
+
+        double loadRatio() {
+            return horses.length * 1.0 / maxCapacity;
+        }
+
+        boolean matches(int i, String fragment) {
+            return fragment == null || names[i].contains(fragment) || breeds[i].contains(fragment);
+        }
+
+        int indexOf(Long horseId) {
+            for (int i = 0; i < horses.length; i++) {
+                if (horses[i].getId().equals(horseId)) return i;
+            }
+            return -1;
+        }
+
+        int indexAfter(HorseCursor cursor) {
+            int low = 0;
+            int high = horses.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(horses[mid], cursor) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int compare(Horse horse, HorseCursor cursor) {
+            int c = horse.getName().compareTo(cursor.getName());
+            if (c == 0) c = horse.getBreed().compareTo(cursor.getBreed());
+            if (c == 0) c = Integer.compare(horse.getAge(), cursor.getAge());
+            if (c == 0) c = Long.compare(horse.getId(), cursor.getId());
+            return c;
+        }
+
+        Stable stable() {
+            return Stable.detached(id, name, maxCapacity, horses.length, totalValue, totalWeight);
+        }
+
+        StableSummary summary() {
+            return new StableSummary(id, name, maxCapacity, horses.length, totalValue);
+        }
+    }
+}
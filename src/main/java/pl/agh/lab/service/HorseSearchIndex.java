@@ -0,0 +1,243 @@
+package pl.agh.lab.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.repo.HorseRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Component
+public class HorseSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HorseSearchIndex.class);
+
+    private final HorseRepository horseRepo;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+    private volatile boolean ready;
+    private List<Runnable> pendingDuringBuild;
+
+    public HorseSearchIndex(HorseRepository horseRepo) {
+        this.horseRepo = horseRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try (Stream<Object[]> rows = horseRepo.streamSearchKeys()) {
+            rows.forEach(r -> fresh.put((Long) r[0], (Long) r[1], (String) r[2], (String) r[3]));
+        }
+
+        lock.writeLock().lock();
+        try {
+            segment = fresh;
+            pendingDuringBuild.forEach(Runnable::run);
+            pendingDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} horses for search in {} ms", fresh.liveCount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void add(Long horseId, Long stableId, String name, String breed) {
+        mutate(() -> segment.put(horseId, stableId, name, breed));
+    }
+
+    public void remove(Long horseId) {
+        mutate(() -> segment.remove(horseId));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long[] search(Long stableId, String fragment, int maxResults) {
+        if (!ready || fragment == null || fragment.isEmpty()) return null;
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return segment.search(stableId, needle, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void mutate(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pendingDuringBuild != null) pendingDuringBuild.add(change);
+            if (segment.deadCount > 1024 && segment.deadCount > segment.liveCount) {
+                segment = segment.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static final class Segment {
+
+        private long[] ids = new long[1024];
+        private long[] stableIds = new long[1024];
+        private String[] texts = new String[1024];
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private final Map<Long, IntList> postings = new HashMap<>();
+        private final Map<Long, IntList> slotsByStable = new HashMap<>();
+        private int size;
+        private int liveCount;
+        private int deadCount;
+
+        void put(Long id, Long stableId, String name, String breed) {
+            remove(id);
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                stableIds = Arrays.copyOf(stableIds, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+            }
+            int slot = size++;
+            String text = name.toLowerCase(Locale.ROOT) + '\n' + breed.toLowerCase(Locale.ROOT);
+            ids[slot] = id;
+            stableIds[slot] = stableId == null ? -1 : stableId;
+            texts[slot] = text;
+            live.set(slot);
+            slotById.put(id, slot);
+            slotsByStable.computeIfAbsent(stableIds[slot], k -> new IntList()).add(slot);
+            liveCount++;
+
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                IntList list = postings.computeIfAbsent(trigram(text, i), k -> new IntList());
+                if (list.size == 0 || list.last() != slot) list.add(slot);
+            }
+        }
+
+        void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return;
+            live.clear(slot);
+            texts[slot] = null;
+            liveCount--;
+            deadCount++;
+        }
+
+        long[] search(Long stableId, String needle, int maxResults) {
+            long wantedStable = stableId == null ? Long.MIN_VALUE : stableId;
+            LongCollector out = new LongCollector(maxResults);
+            IntList scoped = stableId == null ? null : slotsByStable.get(stableId);
+            if (stableId != null && scoped == null) return new long[0];
+
+            if (needle.length() < 3) {
+                if (scoped != null) return scan(scoped, wantedStable, needle, out);
+                for (int slot = live.nextSetBit(0); slot >= 0 && !out.full(); slot = live.nextSetBit(slot + 1)) {
+                    if (matches(slot, wantedStable, needle)) out.add(ids[slot]);
+                }
+                return out.toArray();
+            }
+
+            IntList[] lists = new IntList[needle.length() - 2];
+            for (int i = 0; i < lists.length; i++) {
+                IntList list = postings.get(trigram(needle, i));
+                if (list == null) return new long[0];
+                lists[i] = list;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+            if (scoped != null && scoped.size <= lists[0].size) return scan(scoped, wantedStable, needle, out);
+
+            IntList shortest = lists[0];
+            for (int i = 0; i < shortest.size && !out.full(); i++) {
+                int slot = shortest.values[i];
+                boolean inAll = true;
+                for (int j = 1; j < lists.length && inAll; j++) {
+                    inAll = lists[j].contains(slot);
+                }
+                if (inAll && matches(slot, wantedStable, needle)) out.add(ids[slot]);
+            }
+            return out.toArray();
+        }
+
+        private long[] scan(IntList slots, long wantedStable, String needle, LongCollector out) {
+            for (int i = 0; i < slots.size && !out.full(); i++) {
+                if (matches(slots.values[i], wantedStable, needle)) out.add(ids[slots.values[i]]);
+            }
+            return out.toArray();
+        }
+
+        private boolean matches(int slot, long wantedStable, String needle) {
+            if (!live.get(slot)) return false;
+            if (wantedStable != Long.MIN_VALUE && stableIds[slot] != wantedStable) return false;
+            return texts[slot].contains(needle);
+        }
+
+        Segment compact() {
+            Segment fresh = new Segment();
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                String[] parts = texts[slot].split("\n", 2);
+                fresh.put(ids[slot], stableIds[slot] == -1 ? null : stableIds[slot], parts[0], parts[1]);
+            }
+            return fresh;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+
+    private static final class LongCollector {
+        private final int limit;
+        private long[] values = new long[16];
+        private int size;
+
+        LongCollector(int limit) {
+            this.limit = limit;
+        }
+
+        boolean full() {
+            return size >= limit;
+        }
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
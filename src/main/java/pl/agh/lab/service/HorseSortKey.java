@@ -0,0 +1,23 @@
+package pl.agh.lab.service;
+
+public enum HorseSortKey {
+    NAME("name"),
+    BREED("breed"),
+    TYPE("type"),
+    STATUS("status"),
+    AGE("age"),
+    PRICE("price"),
+    WEIGHT("weightKg"),
+    HEIGHT("heightCm"),
+    RATING_COUNT("ratingCount");
+
+    private final String property;
+
+    HorseSortKey(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+}
@@ -0,0 +1,9 @@
+package pl.agh.lab.service;
+
+public record MetricStats(long count, double sum, Double min, Double max, Double avg) {
+
+    static MetricStats of(long count, double sum, double min, double max) {
+        if (count == 0) return new MetricStats(0, 0.0, null, null, null);
+        return new MetricStats(count, sum, min, max, sum / count);
+    }
+}
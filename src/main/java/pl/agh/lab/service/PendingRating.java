@@ -0,0 +1,5 @@
+package pl.agh.lab.service;
+
+import java.util.Date;
+
+public record PendingRating(long sequence, Long horseId, int value, String description, Date ratingDate) {}
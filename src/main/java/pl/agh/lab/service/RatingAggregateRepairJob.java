@@ -0,0 +1,37 @@
+package pl.agh.lab.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RatingAggregateRepairJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateRepairJob.class);
+
+    private final StableService service;
+    private final boolean rebuildOnStartup;
+
+    public RatingAggregateRepairJob(StableService service,
+                                    @Value("${stable.ratings.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.service = service;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (rebuildOnStartup) {
+            run();
+        }
+    }
+
+    public int run() {
+        long start = System.nanoTime();
+        int updated = service.rebuildRatingAggregates();
+        log.info("Rebuilt rating aggregates for {} horses in {} ms", updated, (System.nanoTime() - start) / 1_000_000);
+        return updated;
+    }
+}
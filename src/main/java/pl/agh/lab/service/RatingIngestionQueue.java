@@ -0,0 +1,227 @@
+package pl.agh.lab.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.persistence.QueryTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class RatingIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingIngestionQueue.class);
+
+    private final StableService service;
+    private final int flushSize;
+    private final int maxAttempts;
+
+    private final Queue<PendingRating> queue = new ConcurrentLinkedQueue<>();
+    private final Deque<Attempt> retries = new ConcurrentLinkedDeque<>();
+    private final Semaphore capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public RatingIngestionQueue(StableService service,
+                                @Value("${stable.ratings.ingest.queue-capacity:10000}") int queueCapacity,
+                                @Value("${stable.ratings.ingest.flush-size:500}") int flushSize,
+                                @Value("${stable.ratings.ingest.max-attempts:5}") int maxAttempts) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queue-capacity must be > 0");
+        if (flushSize <= 0) throw new IllegalArgumentException("flush-size must be > 0");
+        if (maxAttempts <= 0) throw new IllegalArgumentException("max-attempts must be > 0");
+        this.service = service;
+        this.flushSize = flushSize;
+        this.maxAttempts = maxAttempts;
+        this.capacity = new Semaphore(queueCapacity);
+    }
+
+    public long submit(Long horseId, int value, String description)
+            throws ValidationException, HorseOperationException, RatingQueueFullException {
+        return submitAll(List.of(new RatingRequest(horseId, value, description)))[0];
+    }
+
+    public long[] submitAll(List<RatingRequest> requests)
+            throws ValidationException, HorseOperationException, RatingQueueFullException {
+        if (requests.isEmpty()) throw new ValidationException("At least one rating is required");
+
+        Set<Long> horseIds = new HashSet<>();
+        for (RatingRequest r : requests) {
+            if (r.horseId() == null) throw new HorseOperationException("Horse not found");
+            if (r.value() < 0 || r.value() > 5) throw new ValidationException("Rating must be 0-5");
+            horseIds.add(r.horseId());
+        }
+        Set<Long> existing = service.findExistingHorseIds(horseIds);
+        for (Long id : horseIds) {
+            if (!existing.contains(id)) throw new HorseOperationException("Horse not found: " + id);
+        }
+
+        if (!capacity.tryAcquire(requests.size())) {
+            throw new RatingQueueFullException("Rating queue is full");
+        }
+
+        Date now = new Date();
+        long first = sequence.getAndAdd(requests.size()) + 1;
+        long[] sequences = new long[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            RatingRequest r = requests.get(i);
+            sequences[i] = first + i;
+            queue.add(new PendingRating(sequences[i], r.horseId(), r.value(), r.description(), now));
+        }
+        return sequences;
+    }
+
+    @Scheduled(fixedDelayString = "${stable.ratings.ingest.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<Attempt> batch = new ArrayList<>(flushSize);
+            while (batch.size() < flushSize && !retries.isEmpty()) {
+                batch.add(retries.poll());
+            }
+            PendingRating next;
+            while (batch.size() < flushSize && (next = queue.poll()) != null) {
+                batch.add(new Attempt(next, 0));
+            }
+            if (batch.isEmpty()) return;
+            if (!write(batch)) return;
+        }
+    }
+
+    private boolean write(List<Attempt> batch) {
+        try {
+            completed(batch.size(), service.addRatingsBatch(ratings(batch)));
+            return true;
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                retry(batch, e);
+                return false;
+            }
+            log.warn("Batch of {} ratings failed, writing them one by one", batch.size(), e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Attempt attempt = batch.get(i);
+            try {
+                completed(1, service.addRatingsBatch(List.of(attempt.rating())));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    retry(batch.subList(i, batch.size()), e);
+                    return false;
+                }
+                drop(List.of(attempt), e);
+            }
+        }
+        return true;
+    }
+
+    private void retry(List<Attempt> failed, RuntimeException e) {
+        List<Attempt> exhausted = new ArrayList<>();
+        for (int i = failed.size() - 1; i >= 0; i--) {
+            Attempt attempt = failed.get(i);
+            if (attempt.attempts() + 1 >= maxAttempts) {
+                exhausted.add(attempt);
+            } else {
+                retries.addFirst(new Attempt(attempt.rating(), attempt.attempts() + 1));
+            }
+        }
+        retried.addAndGet(failed.size() - exhausted.size());
+        log.warn("Writing {} ratings failed, retrying on next flush: {}", failed.size() - exhausted.size(), e.toString());
+        if (!exhausted.isEmpty()) drop(exhausted, e);
+    }
+
+    private void drop(List<Attempt> failed, RuntimeException e) {
+        completed(failed.size(), 0);
+        for (Attempt attempt : failed) {
+            log.error("Dropped rating {} for horse {} after {} attempts", attempt.rating().sequence(),
+                    attempt.rating().horseId(), attempt.attempts() + 1, e);
+        }
+    }
+
+    private void completed(int attempted, int saved) {
+        written.addAndGet(saved);
+        dropped.addAndGet(attempted - saved);
+        capacity.release(attempted);
+    }
+
+    private static List<PendingRating> ratings(List<Attempt> batch) {
+        return batch.stream().map(Attempt::rating).toList();
+    }
+
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException || t instanceof RecoverableDataAccessException
+                    || t instanceof CannotCreateTransactionException || t instanceof LockTimeoutException
+                    || t instanceof PessimisticLockException || t instanceof QueryTimeoutException
+                    || t instanceof SQLTransientException || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        flushLock.lock();
+        try {
+            if (!retries.isEmpty()) {
+                log.error("Dropped {} ratings still awaiting retry at shutdown", retries.size());
+                completed(retries.size(), 0);
+                retries.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        log.info("Rating queue drained: {} written, {} retried, {} dropped", written.get(), retried.get(), dropped.get());
+    }
+
+    public int getPending() {
+        return queue.size() + getRetrying();
+    }
+
+    public int getRetrying() {
+        return retries.size();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public record RatingRequest(Long horseId, int value, String description) {}
+
+    private record Attempt(PendingRating rating, int attempts) {}
+}
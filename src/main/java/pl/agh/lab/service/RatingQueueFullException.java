@@ -0,0 +1,12 @@
+package pl.agh.lab.service;
+
+public class RatingQueueFullException extends Exception {
+
+    public RatingQueueFullException(String message) {
+        super(message);
+    }
+
+    public RatingQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
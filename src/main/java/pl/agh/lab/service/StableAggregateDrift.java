@@ -0,0 +1,57 @@
+package pl.agh.lab.service;
+
+public class StableAggregateDrift {
+
+    private final Long stableId;
+    private final String stableName;
+    private final long storedLoad;
+    private final long actualLoad;
+    private final double storedValue;
+    private final double actualValue;
+    private final double storedWeight;
+    private final double actualWeight;
+
+    public StableAggregateDrift(Long stableId, String stableName, long storedLoad, long actualLoad,
+                                double storedValue, double actualValue, double storedWeight, double actualWeight) {
+        this.stableId = stableId;
+        this.stableName = stableName;
+        this.storedLoad = storedLoad;
+        this.actualLoad = actualLoad;
+        this.storedValue = storedValue;
+        this.actualValue = actualValue;
+        this.storedWeight = storedWeight;
+        this.actualWeight = actualWeight;
+    }
+
+    public Long getStableId() {
+        return stableId;
+    }
+
+    public String getStableName() {
+        return stableName;
+    }
+
+    public long getStoredLoad() {
+        return storedLoad;
+    }
+
+    public long getActualLoad() {
+        return actualLoad;
+    }
+
+    public double getStoredValue() {
+        return storedValue;
+    }
+
+    public double getActualValue() {
+        return actualValue;
+    }
+
+    public double getStoredWeight() {
+        return storedWeight;
+    }
+
+    public double getActualWeight() {
+        return actualWeight;
+    }
+}
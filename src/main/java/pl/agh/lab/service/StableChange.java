@@ -0,0 +1,60 @@
+package pl.agh.lab.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import pl.agh.lab.model.HorseCondition;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StableChange(long sequence, Type type, Long stableId, Long horseId, String stableName,
+                           Integer maxCapacity, Long horseDelta, Double valueDelta, Double weightDelta,
+                           HorseCondition status, Long ratingCount, Long ratingSum) {
+
+    public enum Type {
+        STABLE_ADDED, STABLE_REMOVED, HORSE_ADDED, HORSES_IMPORTED, HORSE_REMOVED, HORSE_STATUS_CHANGED,
+        RATINGS_ADDED, RESYNC
+    }
+
+    public static StableChange stableAdded(Long stableId, String stableName, int maxCapacity) {
+        return new StableChange(0, Type.STABLE_ADDED, stableId, null, stableName, maxCapacity,
+                null, null, null, null, null, null);
+    }
+
+    public static StableChange stableRemoved(Long stableId) {
+        return new StableChange(0, Type.STABLE_REMOVED, stableId, null, null, null,
+                null, null, null, null, null, null);
+    }
+
+    public static StableChange horseAdded(Long stableId, Long horseId, double price, double weight, HorseCondition status) {
+        return new StableChange(0, Type.HORSE_ADDED, stableId, horseId, null, null,
+                1L, price, weight, status, null, null);
+    }
+
+    public static StableChange horsesImported(Long stableId, long count, double value, double weight) {
+        return new StableChange(0, Type.HORSES_IMPORTED, stableId, null, null, null,
+                count, value, weight, null, null, null);
+    }
+
+    public static StableChange horseRemoved(Long stableId, Long horseId, double price, double weight) {
+        return new StableChange(0, Type.HORSE_REMOVED, stableId, horseId, null, null,
+                -1L, -price, -weight, null, null, null);
+    }
+
+    public static StableChange horseStatusChanged(Long stableId, Long horseId, HorseCondition status) {
+        return new StableChange(0, Type.HORSE_STATUS_CHANGED, stableId, horseId, null, null,
+                null, null, null, status, null, null);
+    }
+
+    public static StableChange ratingsAdded(Long stableId, Long horseId, long count, long sum) {
+        return new StableChange(0, Type.RATINGS_ADDED, stableId, horseId, null, null,
+                null, null, null, null, count, sum);
+    }
+
+    public static StableChange resync(long sequence) {
+        return new StableChange(sequence, Type.RESYNC, null, null, null, null,
+                null, null, null, null, null, null);
+    }
+
+    StableChange withSequence(long sequence) {
+        return new StableChange(sequence, type, stableId, horseId, stableName, maxCapacity,
+                horseDelta, valueDelta, weightDelta, status, ratingCount, ratingSum);
+    }
+}
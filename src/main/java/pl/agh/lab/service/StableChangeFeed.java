@@ -0,0 +1,145 @@
+package pl.agh.lab.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class StableChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(StableChangeFeed.class);
+
+    private final int bufferSize;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+
+    public StableChangeFeed(@Value("${stable.changes.buffer-size:256}") int bufferSize,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bufferSize = bufferSize;
+        if (virtualThreads) {
+            this.dispatcher = VirtualThreads.newPerTaskExecutor();
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.dispatcher = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "change-feed-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(StableChange change) throws Exception;
+    }
+
+    public Subscription subscribe(Sink sink) {
+        return subscribe(sink, bufferSize);
+    }
+
+    public Subscription subscribe(Sink sink, int capacity) {
+        Subscription subscription = new Subscription(sink, capacity);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void publish(StableChange change) {
+        StableChange sequenced = change.withSequence(sequence.incrementAndGet());
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(sequenced);
+        }
+    }
+
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long overflowCount() {
+        return overflows.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.forEach(Subscription::cancel);
+        dispatcher.shutdownNow();
+    }
+
+    public final class Subscription {
+
+        private final Sink sink;
+        private final BlockingQueue<StableChange> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Subscription(Sink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(StableChange change) {
+            if (cancelled) return;
+            synchronized (queue) {
+                if (!queue.offer(change)) {
+                    queue.clear();
+                    queue.offer(StableChange.resync(change.sequence()));
+                    overflows.incrementAndGet();
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                }
+            }
+        }
+
+        private void drain() {
+            while (!cancelled) {
+                StableChange change;
+                synchronized (queue) {
+                    change = queue.poll();
+                }
+                if (change == null) {
+                    scheduled.set(false);
+                    if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+                    continue;
+                }
+                try {
+                    sink.accept(change);
+                } catch (Exception e) {
+                    log.debug("Dropping change feed subscriber: {}", e.toString());
+                    cancel();
+                }
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
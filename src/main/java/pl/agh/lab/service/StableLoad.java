@@ -0,0 +1,38 @@
+package pl.agh.lab.service;
+
+public class StableLoad {
+
+    private final Long stableId;
+    private final String stableName;
+    private final int maxCapacity;
+    private final long horseCount;
+    private final double loadRatio;
+
+    public StableLoad(Long stableId, String stableName, int maxCapacity, long horseCount, double loadRatio) {
+        this.stableId = stableId;
+        this.stableName = stableName;
+        this.maxCapacity = maxCapacity;
+        this.horseCount = horseCount;
+        this.loadRatio = loadRatio;
+    }
+
+    public Long getStableId() {
+        return stableId;
+    }
+
+    public String getStableName() {
+        return stableName;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public long getHorseCount() {
+        return horseCount;
+    }
+
+    public double getLoadRatio() {
+        return loadRatio;
+    }
+}
@@ -0,0 +1,52 @@
+package pl.agh.lab.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class StableLoadReconcileJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StableLoadReconcileJob.class);
+
+    private final StableService service;
+    private final boolean reconcileOnStartup;
+
+    public StableLoadReconcileJob(StableService service,
+                                  @Value("${stable.capacity.reconcile-on-startup:false}") boolean reconcileOnStartup) {
+        this.service = service;
+        this.reconcileOnStartup = reconcileOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (reconcileOnStartup) {
+            run();
+        }
+    }
+
+    public int run() {
+        long start = System.nanoTime();
+        int updated = service.reconcileStableLoads();
+        log.info("Reconciled load counters for {} stables in {} ms", updated, (System.nanoTime() - start) / 1_000_000);
+        return updated;
+    }
+
+    @Scheduled(initialDelayString = "${stable.aggregates.check-interval-ms:600000}",
+            fixedDelayString = "${stable.aggregates.check-interval-ms:600000}")
+    public List<StableAggregateDrift> check() {
+        List<StableAggregateDrift> drift = service.checkStableAggregates();
+        for (StableAggregateDrift d : drift) {
+            log.warn("Stable {} aggregates drifted: load {} vs {}, value {} vs {}, weight {} vs {}",
+                    d.getStableId(), d.getStoredLoad(), d.getActualLoad(), d.getStoredValue(), d.getActualValue(),
+                    d.getStoredWeight(), d.getActualWeight());
+        }
+        return drift;
+    }
+}
@@ -1,24 +1,86 @@
 package pl.agh.lab.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import pl.agh.lab.model.*;
 import pl.agh.lab.repo.*;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class StableService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int IMPORT_FLUSH_SIZE = 1000;
+    private static final int MAX_INDEXED_CANDIDATES = 1000;
+    private static final double AGGREGATE_TOLERANCE = 0.005;
+
     private final StableRepository stableRepo;
     private final HorseRepository horseRepo;
     private final RatingRepository ratingRepo;
-
-    public StableService(StableRepository stableRepo, HorseRepository horseRepo, RatingRepository ratingRepo) {
+    private final HorseSearchIndex searchIndex;
+    private final StableChangeFeed changeFeed;
+    private final HorseReadModel readModel;
+    private final HerdColumns herdColumns;
+    private final StableVersions versions;
+
+    private final BoundedCache<Long, StableSummary> summaryCache;
+    private final BoundedCache<Long, List<HorseRatingStat>> ratingStatsCache;
+    private final BoundedCache<Long, Double> averageRatingCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StableService(StableRepository stableRepo, HorseRepository horseRepo, RatingRepository ratingRepo,
+                         HorseSearchIndex searchIndex, StableChangeFeed changeFeed, HorseReadModel readModel,
+                         HerdColumns herdColumns, StableVersions versions,
+                         @Value("${stable.cache.max-size:10000}") int cacheMaxSize,
+                         @Value("${stable.cache.ttl-seconds:60}") long cacheTtlSeconds) {
         this.stableRepo = stableRepo;
         this.horseRepo = horseRepo;
         this.ratingRepo = ratingRepo;
+        this.searchIndex = searchIndex;
+        this.changeFeed = changeFeed;
+        this.readModel = readModel;
+        this.herdColumns = herdColumns;
+        this.versions = versions;
+        this.summaryCache = new BoundedCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+        this.ratingStatsCache = new BoundedCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+        this.averageRatingCache = new BoundedCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, BoundedCache<?, ?>> getCaches() {
+        Map<String, BoundedCache<?, ?>> caches = new LinkedHashMap<>();
+        caches.put("stableSummary", summaryCache);
+        caches.put("ratingStats", ratingStatsCache);
+        caches.put("averageRating", averageRatingCache);
+        return caches;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StableChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, BoundedCache.Stats> getCacheStats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        getCaches().forEach((name, cache) -> stats.put(name, cache.stats()));
+        return stats;
     }
 
 
@@ -26,47 +88,261 @@ public class StableService {
         return stableRepo.findAll();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<StableSummary> getStableSummaries() {
+        if (readModel.isActive()) return readModel.summaries();
+        return stableRepo.findSummaries();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<StableSummary> getStableSummariesByLoad() {
+        if (readModel.isActive()) return readModel.summariesByLoad();
+        return stableRepo.findSummariesByLoad();
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<StableSummary> getStableSummary(Long id) {
+        if (readModel.isActive()) return readModel.summary(id);
+        return Optional.ofNullable(summaryCache.get(id, () -> stableRepo.findSummaryById(id).orElse(null)));
+    }
+
+    public HerdTotals getHerdTotals() {
+        return stableRepo.findHerdTotals();
+    }
+
+    public double getTotalHerdValue() {
+        return stableRepo.totalHerdValue();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StableAggregateDrift> checkStableAggregates() {
+        return stableRepo.findAggregateDrift(AGGREGATE_TOLERANCE);
+    }
+
     public Optional<Stable> getStable(Long id) {
         return stableRepo.findById(id);
     }
 
+    public boolean stableExists(Long id) {
+        return stableRepo.existsById(id);
+    }
+
     public Optional<Horse> getHorse(Long id) {
         return horseRepo.findById(id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Horse> getHorses(Long stableId) throws StableOperationException {
+        if (readModel.isActive()) {
+            return readModel.horses(stableId).orElseThrow(() -> new StableOperationException("Stable not found"));
+        }
         Stable stable = stableRepo.findById(stableId)
                 .orElseThrow(() -> new StableOperationException("Stable not found"));
         return horseRepo.findByStable(stable);
     }
 
+    public HorsePage getHorses(Long stableId, String after, int limit) throws StableOperationException, ValidationException {
+        if (readModel.isActive()) {
+            checkPageLimit(limit);
+            HorseCursor c = after == null || after.isBlank() ? null : HorseCursor.decode(after);
+            return readModel.page(stableId, c, limit).orElseThrow(() -> new StableOperationException("Stable not found"));
+        }
+        if (getStableSummary(stableId).isEmpty()) throw new StableOperationException("Stable not found");
+        return findHorsePage(stableRepo.getReferenceById(stableId), null, null, after, limit);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Horse> getHorses(Stable stable) {
         if (stable == null || stable.getId() == null) return new ArrayList<>();
+        if (readModel.isActive()) return readModel.horses(stable.getId()).orElseGet(ArrayList::new);
         return horseRepo.findByStable(stable);
     }
 
+    @Transactional(readOnly = true)
+    public long exportHorsesCsv(Long stableId, Writer writer) throws IOException {
+        HorseCsv.writeHeader(writer);
+        writer.flush();
+
+        long rows = 0;
+        try (Stream<Horse> horses = horseRepo.streamByStableId(stableId)) {
+            Iterator<Horse> it = horses.iterator();
+            while (it.hasNext()) {
+                Horse h = it.next();
+                HorseCsv.writeRow(writer, h);
+                entityManager.detach(h);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
     public List<HorseRatingStat> getHorseRatingStatsForStable(Stable stable) {
         if (stable == null || stable.getId() == null) return new ArrayList<>();
-        return ratingRepo.findStatsForStable(stable.getId());
+        return getHorseRatingStatsForStable(stable.getId());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<HorseRatingStat> getHorseRatingStatsForStable(Long stableId) {
+        if (stableId == null) return new ArrayList<>();
+        return ratingStatsCache.get(stableId, () -> List.copyOf(horseRepo.findRatingStatsForStable(stableId)));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Double getAverageRatingForHorse(Long horseId) {
-        return ratingRepo.getAverageRatingForHorse(horseId);
+        return averageRatingCache.get(horseId, () -> horseRepo.getAverageRating(horseId));
     }
 
+    public int rebuildRatingAggregates() {
+        int updated = horseRepo.rebuildRatingAggregates();
+        invalidate(() -> {
+            ratingStatsCache.invalidateAll();
+            averageRatingCache.invalidateAll();
+        });
+        afterCommit(() -> {
+            readModel.reload();
+            changeFeed.publish(StableChange.resync(0));
+        });
+        bumpAllVersions();
+        return updated;
+    }
+
+    public int reconcileStableLoads() {
+        int updated = stableRepo.reconcileLoads();
+        invalidate(summaryCache::invalidateAll);
+        afterCommit(() -> changeFeed.publish(StableChange.resync(0)));
+        bumpAllVersions();
+        return updated;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Horse> filterHorses(Stable stable, String nameFragment, HorseCondition stateFilter) {
         if (stable == null || stable.getId() == null) return new ArrayList<>();
-        return horseRepo.filter(stable, nameFragment, stateFilter);
+        return filterHorses(stable.getId(), nameFragment, stateFilter);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Horse> filterHorses(Long stableId, String nameFragment, HorseCondition stateFilter) {
+        if (stableId == null) return new ArrayList<>();
+        String fragment = normalizeFragment(nameFragment);
+        if (readModel.isActive()) return readModel.filter(stableId, fragment, stateFilter);
+        List<Long> ids = indexedMatches(stableId, fragment);
+        if (ids != null) {
+            return ids.isEmpty() ? new ArrayList<>() : horseRepo.filterPageByIds(ids, stateFilter, Limit.unlimited());
+        }
+        return horseRepo.filter(stableRepo.getReferenceById(stableId), fragment, stateFilter);
+    }
+
+    public HorsePage filterHorses(Stable stable, String nameFragment, HorseCondition stateFilter, String after, int limit)
+            throws ValidationException {
+        if (stable == null || stable.getId() == null) return new HorsePage(List.of(), null);
+        return findHorsePage(stable, normalizeFragment(nameFragment), stateFilter, after, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public long countHorses(HorseQuery query) {
+        if (query.stableId() == null) return 0;
+        String fragment = normalizeFragment(query.fragment());
+        List<Long> ids = indexedMatches(query.stableId(), fragment);
+        if (ids != null) {
+            return ids.isEmpty() ? 0 : horseRepo.countFilteredByIds(ids, query.status());
+        }
+        return horseRepo.countFiltered(stableRepo.getReferenceById(query.stableId()), fragment, query.status());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Horse> getHorseWindow(HorseQuery query, int offset, int limit) throws ValidationException {
+        checkPageLimit(limit);
+        if (offset < 0 || offset % limit != 0) {
+            throw new ValidationException("offset must be a non-negative multiple of limit");
+        }
+        if (query.stableId() == null) return new ArrayList<>();
+
+        PageRequest page = PageRequest.of(offset / limit, limit, query.sort());
+        String fragment = normalizeFragment(query.fragment());
+        List<Long> ids = indexedMatches(query.stableId(), fragment);
+        if (ids != null) {
+            return ids.isEmpty() ? new ArrayList<>() : horseRepo.filterWindowByIds(ids, query.status(), page);
+        }
+        return horseRepo.filterWindow(stableRepo.getReferenceById(query.stableId()), fragment, query.status(), page);
+    }
+
+    public List<Horse> searchHorses(String query, int limit) throws ValidationException {
+        String fragment = normalizeFragment(query);
+        if (fragment == null) throw new ValidationException("Search query is required");
+        checkPageLimit(limit);
+
+        List<Long> ids = indexedMatches(null, fragment);
+        if (ids == null) return horseRepo.searchByFragment(fragment, Limit.of(limit));
+        if (ids.isEmpty()) return new ArrayList<>();
+        return horseRepo.filterPageByIds(ids, null, Limit.of(limit));
+    }
+
+    private HorsePage findHorsePage(Stable stable, String fragment, HorseCondition status, String after, int limit)
+            throws ValidationException {
+        checkPageLimit(limit);
+
+        List<Long> ids = indexedMatches(stable.getId(), fragment);
+        if (ids != null && ids.isEmpty()) return new HorsePage(List.of(), null);
+
+        Limit fetch = Limit.of(limit + 1);
+        HorseCursor c = after == null || after.isBlank() ? null : HorseCursor.decode(after);
+        List<Horse> horses;
+        if (ids != null) {
+            horses = c == null
+                    ? horseRepo.filterPageByIds(ids, status, fetch)
+                    : horseRepo.filterPageAfterByIds(ids, status, c.getName(), c.getBreed(), c.getAge(), c.getId(), fetch);
+        } else {
+            horses = c == null
+                    ? horseRepo.filterPage(stable, fragment, status, fetch)
+                    : horseRepo.filterPageAfter(stable, fragment, status, c.getName(), c.getBreed(), c.getAge(), c.getId(), fetch);
+        }
+
+        if (horses.size() <= limit) return new HorsePage(horses, null);
+        List<Horse> page = horses.subList(0, limit);
+        return new HorsePage(page, HorseCursor.of(page.get(limit - 1)).encode());
+    }
+
+    private static void checkPageLimit(int limit) throws ValidationException {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private List<Long> indexedMatches(Long stableId, String fragment) {
+        if (fragment == null) return null;
+        long[] ids = searchIndex.search(stableId, fragment, MAX_INDEXED_CANDIDATES + 1);
+        if (ids == null || ids.length > MAX_INDEXED_CANDIDATES) return null;
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static String normalizeFragment(String fragment) {
+        if (fragment == null || fragment.isBlank()) return null;
+        return fragment.trim().toLowerCase(Locale.ROOT);
     }
 
     public List<Stable> sortStablesByCurrentLoad() {
-        List<Stable> all = getAllStables();
-        all.sort(Comparator.comparingDouble(s -> {
-            long count = horseRepo.countByStable(s);
-            if (s.getMaxCapacity() == 0) return 0.0;
-            return (double) count / s.getMaxCapacity();
-        }));
-        return all;
+        if (readModel.isActive()) return readModel.stablesByLoad();
+        List<StableLoad> ranking = stableRepo.findLoadRankingAsc(0.0, Double.MAX_VALUE, Limit.unlimited());
+        Map<Long, Stable> byId = new HashMap<>();
+        for (Stable s : stableRepo.findAll()) {
+            byId.put(s.getId(), s);
+        }
+        List<Stable> sorted = new ArrayList<>(ranking.size());
+        for (StableLoad load : ranking) {
+            Stable s = byId.get(load.getStableId());
+            if (s != null) sorted.add(s);
+        }
+        return sorted;
+    }
+
+    public List<StableLoad> getStableLoadRanking(Integer top, Double minLoad, Double maxLoad) throws ValidationException {
+        if (top != null && top <= 0) throw new ValidationException("top must be > 0");
+        double min = minLoad == null ? 0.0 : minLoad;
+        double max = maxLoad == null ? Double.MAX_VALUE : maxLoad;
+        if (min > max) throw new ValidationException("minLoad must be <= maxLoad");
+
+        Limit limit = top == null ? Limit.unlimited() : Limit.of(top);
+        return stableRepo.findLoadRankingDesc(min, max, limit);
     }
 
     public Stable addStable(String name, int capacity) throws ValidationException {
@@ -75,14 +351,36 @@ public class StableService {
         if (capacity <= 0) throw new ValidationException("Stable capacity must be > 0");
         if (stableRepo.existsByStableName(name)) throw new ValidationException("Stable '" + name + "' already exists");
 
-        return stableRepo.save(new Stable(name, capacity));
+        Stable saved = stableRepo.save(new Stable(name, capacity));
+        invalidate(() -> summaryCache.invalidate(saved.getId()));
+        afterCommit(() -> {
+            readModel.stableAdded(saved.getId(), saved.getStableName(), saved.getMaxCapacity());
+            changeFeed.publish(StableChange.stableAdded(saved.getId(), saved.getStableName(), saved.getMaxCapacity()));
+        });
+        bumpVersion(saved.getId());
+        return saved;
     }
 
     public void removeStable(Long id) throws StableOperationException {
         if (!stableRepo.existsById(id)) {
             throw new StableOperationException("Stable not found");
         }
-        stableRepo.deleteById(id);
+        List<Long> horseIds = horseRepo.findIdsByStableId(id);
+        ratingRepo.deleteByStableId(id);
+        horseRepo.deleteByStableId(id);
+        stableRepo.deleteStableById(id);
+        afterCommit(() -> {
+            horseIds.forEach(searchIndex::remove);
+            horseIds.forEach(herdColumns::remove);
+            readModel.stableRemoved(id);
+            changeFeed.publish(StableChange.stableRemoved(id));
+        });
+        invalidate(() -> {
+            summaryCache.invalidate(id);
+            ratingStatsCache.invalidate(id);
+            horseIds.forEach(averageRatingCache::invalidate);
+        });
+        bumpVersion(id);
     }
 
     public void removeStable(Stable stable) throws StableOperationException {
@@ -100,13 +398,22 @@ public class StableService {
         if (horseRepo.existsDuplicate(stable, name, breed, age)) {
             throw new HorseOperationException("Horse already exists");
         }
-        if (horseRepo.countByStable(stable) >= stable.getMaxCapacity()) {
+        if (stableRepo.reserveCapacity(stable.getId(), 1, price, weightKg) == 0) {
             throw new StableOperationException("Stable is full");
         }
 
         Horse horse = new Horse(name, breed, type, status, age, price, weightKg, heightCm, microchipId, acquisitionDate);
-        stable.addHorse(horse);
-        return horseRepo.save(horse);
+        horse.setStable(stable);
+        Horse saved = horseRepo.save(horse);
+        invalidate(() -> summaryCache.invalidate(stable.getId()));
+        afterCommit(() -> {
+            searchIndex.add(saved.getId(), stable.getId(), saved.getName(), saved.getBreed());
+            herdColumns.add(saved.getId(), stable.getId(), breed, type, status, price, weightKg, heightCm, age);
+            readModel.horsesAdded(stable.getId(), List.of(saved));
+            changeFeed.publish(StableChange.horseAdded(stable.getId(), saved.getId(), price, weightKg, status));
+        });
+        bumpVersion(stable.getId());
+        return saved;
     }
 
     public Horse addHorse(Long stableId, Horse horseData) throws ValidationException, StableOperationException, HorseOperationException {
@@ -119,9 +426,140 @@ public class StableService {
                 horseData.getAcquisitionDate());
     }
 
+    public HorseImportResult importHorses(List<HorseImportRow> rows) {
+        List<HorseImportResult.Rejection> rejected = new ArrayList<>();
+        Map<Long, List<HorseImportRow>> byStable = new LinkedHashMap<>();
+        for (HorseImportRow row : rows) {
+            if (!row.isValid()) {
+                rejected.add(new HorseImportResult.Rejection(row.line(), row.error()));
+            } else {
+                byStable.computeIfAbsent(row.stableId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        Map<Long, StableSummary> stables = new HashMap<>();
+        for (StableSummary summary : stableRepo.findSummariesByIds(byStable.keySet())) {
+            stables.put(summary.getId(), summary);
+        }
+
+        long accepted = 0;
+        List<HorseImportRow> imported = new ArrayList<>();
+        List<StableChange> changes = new ArrayList<>();
+        for (Map.Entry<Long, List<HorseImportRow>> entry : byStable.entrySet()) {
+            StableSummary summary = stables.get(entry.getKey());
+            if (summary == null) {
+                for (HorseImportRow row : entry.getValue()) {
+                    rejected.add(new HorseImportResult.Rejection(row.line(), "Stable not found"));
+                }
+                continue;
+            }
+
+            Set<String> existing = new HashSet<>();
+            for (Object[] key : horseRepo.findIdentityKeys(summary.getId())) {
+                existing.add(identityKey((String) key[0], (String) key[1], (Integer) key[2]));
+            }
+
+            List<HorseImportRow> candidates = new ArrayList<>();
+            for (HorseImportRow row : entry.getValue()) {
+                Horse horse = row.horse();
+                if (existing.add(identityKey(horse.getName(), horse.getBreed(), horse.getAge()))) {
+                    candidates.add(row);
+                } else {
+                    rejected.add(new HorseImportResult.Rejection(row.line(), "Horse already exists"));
+                }
+            }
+
+            long reserved = reserveUpTo(summary.getId(), candidates);
+            double value = 0;
+            double weight = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                HorseImportRow row = candidates.get(i);
+                if (i >= reserved) {
+                    rejected.add(new HorseImportResult.Rejection(row.line(), "Stable is full"));
+                    continue;
+                }
+
+                Horse horse = row.horse();
+                horse.setStable(stableRepo.getReferenceById(summary.getId()));
+                entityManager.persist(horse);
+                imported.add(row);
+                value += horse.getPrice();
+                weight += horse.getWeightKg();
+                if (++accepted % IMPORT_FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            if (reserved > 0) {
+                changes.add(StableChange.horsesImported(summary.getId(), reserved, value, weight));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        invalidate(() -> stables.keySet().forEach(summaryCache::invalidate));
+        afterCommit(() -> {
+            Map<Long, List<Horse>> added = new HashMap<>();
+            for (HorseImportRow row : imported) {
+                Horse h = row.horse();
+                searchIndex.add(h.getId(), row.stableId(), h.getName(), h.getBreed());
+                herdColumns.add(h.getId(), row.stableId(), h.getBreed(), h.getType(), h.getStatus(), h.getPrice(),
+                        h.getWeightKg(), h.getHeightCm(), h.getAge());
+                added.computeIfAbsent(row.stableId(), id -> new ArrayList<>()).add(h);
+            }
+            added.forEach(readModel::horsesAdded);
+            changes.forEach(changeFeed::publish);
+        });
+
+        bumpVersions(stables.keySet());
+        rejected.sort(Comparator.comparingInt(HorseImportResult.Rejection::line));
+        return new HorseImportResult(accepted, rejected);
+    }
+
+    private long reserveUpTo(Long stableId, List<HorseImportRow> candidates) {
+        double[] value = new double[candidates.size() + 1];
+        double[] weight = new double[candidates.size() + 1];
+        for (int i = 0; i < candidates.size(); i++) {
+            value[i + 1] = value[i] + candidates.get(i).horse().getPrice();
+            weight[i + 1] = weight[i] + candidates.get(i).horse().getWeightKg();
+        }
+
+        while (!candidates.isEmpty()) {
+            long free = stableRepo.findFreeCapacity(stableId).orElse(0L);
+            int count = (int) Math.min(candidates.size(), free);
+            if (count <= 0) return 0;
+            if (stableRepo.reserveCapacity(stableId, count, value[count], weight[count]) > 0) return count;
+        }
+        return 0;
+    }
+
+    private static String identityKey(String name, String breed, int age) {
+        return name.toLowerCase(Locale.ROOT) + '\0' + breed.toLowerCase(Locale.ROOT) + '\0' + age;
+    }
+
     public void removeHorse(Long horseId) throws HorseOperationException {
-        if (!horseRepo.existsById(horseId)) throw new HorseOperationException("Horse not found");
-        horseRepo.deleteById(horseId);
+        Horse horse = horseRepo.findById(horseId)
+                .orElseThrow(() -> new HorseOperationException("Horse not found"));
+        Long stableId = stableIdOf(horse);
+        horseRepo.delete(horse);
+        if (stableId != null) {
+            stableRepo.releaseCapacity(stableId, 1, horse.getPrice(), horse.getWeightKg());
+        }
+        afterCommit(() -> {
+            searchIndex.remove(horseId);
+            herdColumns.remove(horseId);
+            if (stableId != null) {
+                readModel.horseRemoved(stableId, horseId);
+                changeFeed.publish(StableChange.horseRemoved(stableId, horseId, horse.getPrice(), horse.getWeightKg()));
+            }
+        });
+        invalidate(() -> {
+            averageRatingCache.invalidate(horseId);
+            if (stableId != null) {
+                summaryCache.invalidate(stableId);
+                ratingStatsCache.invalidate(stableId);
+            }
+        });
+        bumpVersion(stableId);
     }
 
     public void removeHorse(Stable stable, Horse horse) throws StableOperationException, HorseOperationException {
@@ -129,13 +567,54 @@ public class StableService {
         removeHorse(horse.getId());
     }
 
+    public Horse changeHorseStatus(Long horseId, HorseCondition status) throws ValidationException, HorseOperationException {
+        if (status == null) throw new ValidationException("Status is required");
+        Horse horse = horseRepo.findById(horseId)
+                .orElseThrow(() -> new HorseOperationException("Horse not found"));
+        if (horse.getStatus() == status) return horse;
+
+        horse.setStatus(status);
+        Long stableId = stableIdOf(horse);
+        afterCommit(() -> {
+            herdColumns.changeStatus(horseId, status);
+            if (stableId != null) {
+                readModel.horseStatusChanged(stableId, horseId, status);
+                changeFeed.publish(StableChange.horseStatusChanged(stableId, horseId, status));
+            }
+        });
+        bumpVersion(stableId);
+        return horse;
+    }
+
     public Rating addRatingToHorse(Horse horse, int value, String description) throws ValidationException, HorseOperationException {
         if (horse == null || horse.getId() == null) throw new HorseOperationException("Horse not found");
 
         if (value < 0 || value > 5) throw new ValidationException("Rating must be 0-5");
 
         Rating rating = new Rating(value, horse, new Date(), description);
-        return ratingRepo.save(rating);
+        Rating saved = ratingRepo.save(rating);
+        horseRepo.recordRatings(horse.getId(), 1, value);
+
+        Long horseId = horse.getId();
+        Long stableId = stableIdOf(horse);
+        if (stableId != null) {
+            Map<Long, long[]> totals = ratingTotals(List.of(horseId));
+            afterCommit(() -> {
+                long[] total = totals.get(horseId);
+                if (total != null) readModel.ratingTotalsChanged(stableId, horseId, total[0], total[1]);
+                changeFeed.publish(StableChange.ratingsAdded(stableId, horseId, 1, value));
+            });
+        }
+        invalidate(() -> {
+            averageRatingCache.invalidate(horseId);
+            if (stableId != null) {
+                ratingStatsCache.invalidate(stableId);
+            } else {
+                ratingStatsCache.invalidateAll();
+            }
+        });
+        bumpVersion(stableId);
+        return saved;
     }
 
     public Rating addRatingToHorse(Long horseId, int value, String description) throws ValidationException, HorseOperationException {
@@ -143,4 +622,118 @@ public class StableService {
                 .orElseThrow(() -> new HorseOperationException("Horse not found"));
         return addRatingToHorse(horse, value, description);
     }
-}
\ No newline at end of file
+
+    public Set<Long> findExistingHorseIds(Collection<Long> horseIds) {
+        if (horseIds.isEmpty()) return Set.of();
+        return new HashSet<>(horseRepo.findExistingIds(horseIds));
+    }
+
+    public int addRatingsBatch(List<PendingRating> ratings) {
+        Map<Long, Long> stableIds = new HashMap<>();
+        for (Object[] row : horseRepo.findStableIdsByHorseIds(ratings.stream().map(PendingRating::horseId).toList())) {
+            stableIds.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<Long, long[]> deltas = new HashMap<>();
+        int saved = 0;
+        for (PendingRating r : ratings) {
+            if (!stableIds.containsKey(r.horseId())) continue;
+            Horse horse = horseRepo.getReferenceById(r.horseId());
+            entityManager.persist(new Rating(r.value(), horse, r.ratingDate(), r.description()));
+            long[] delta = deltas.computeIfAbsent(r.horseId(), id -> new long[2]);
+            delta[0]++;
+            delta[1] += r.value();
+            saved++;
+        }
+        entityManager.flush();
+
+        Map<RatingDelta, List<Long>> byDelta = new HashMap<>();
+        for (Map.Entry<Long, long[]> e : deltas.entrySet()) {
+            byDelta.computeIfAbsent(new RatingDelta(e.getValue()[0], e.getValue()[1]), d -> new ArrayList<>()).add(e.getKey());
+        }
+        for (Map.Entry<RatingDelta, List<Long>> e : byDelta.entrySet()) {
+            horseRepo.recordRatingsForHorses(e.getValue(), e.getKey().count(), e.getKey().sum());
+        }
+
+        Set<Long> touchedHorses = deltas.keySet();
+        Map<Long, long[]> totals = deltas.isEmpty() ? Map.of() : ratingTotals(touchedHorses);
+        afterCommit(() -> deltas.forEach((horseId, delta) -> {
+            long[] total = totals.get(horseId);
+            if (total != null) readModel.ratingTotalsChanged(stableIds.get(horseId), horseId, total[0], total[1]);
+            changeFeed.publish(StableChange.ratingsAdded(stableIds.get(horseId), horseId, delta[0], delta[1]));
+        }));
+        invalidate(() -> {
+            for (Long horseId : touchedHorses) {
+                averageRatingCache.invalidate(horseId);
+                Long stableId = stableIds.get(horseId);
+                if (stableId != null) ratingStatsCache.invalidate(stableId);
+            }
+        });
+        if (saved > 0) bumpVersions(new HashSet<>(stableIds.values()));
+        return saved;
+    }
+
+    private record RatingDelta(long count, long sum) {}
+
+    private Map<Long, long[]> ratingTotals(Collection<Long> horseIds) {
+        if (!readModel.isEnabled()) return Map.of();
+        Map<Long, long[]> totals = new HashMap<>();
+        for (Object[] row : horseRepo.findRatingTotals(horseIds)) {
+            totals.put((Long) row[0], new long[]{(Long) row[1], (Long) row[2]});
+        }
+        return totals;
+    }
+
+    private static Long stableIdOf(Horse horse) {
+        return horse.getStable() == null ? null : horse.getStable().getId();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void bumpVersion(Long stableId) {
+        afterCompletion(() -> versions.bump(stableId));
+    }
+
+    private void bumpVersions(Collection<Long> stableIds) {
+        afterCompletion(() -> stableIds.forEach(versions::bump));
+    }
+
+    private void bumpAllVersions() {
+        afterCompletion(versions::bumpAll);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) action.run();
+            }
+        });
+    }
+
+    private static void invalidate(Runnable action) {
+        action.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
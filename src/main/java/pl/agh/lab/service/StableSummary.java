@@ -0,0 +1,38 @@
+package pl.agh.lab.service;
+
+public class StableSummary {
+
+    private final Long id;
+    private final String stableName;
+    private final int maxCapacity;
+    private final long currentLoad;
+    private final double totalValue;
+
+    public StableSummary(Long id, String stableName, int maxCapacity, long currentLoad, double totalValue) {
+        this.id = id;
+        this.stableName = stableName;
+        this.maxCapacity = maxCapacity;
+        this.currentLoad = currentLoad;
+        this.totalValue = totalValue;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStableName() {
+        return stableName;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public long getCurrentLoad() {
+        return currentLoad;
+    }
+
+    public double getTotalValue() {
+        return totalValue;
+    }
+}
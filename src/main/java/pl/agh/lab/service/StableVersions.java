@@ -0,0 +1,43 @@
+package pl.agh.lab.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class StableVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong global = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Map<Long, Long> stables = new ConcurrentHashMap<>();
+
+    public long global() {
+        return global.get();
+    }
+
+    public long stable(Long stableId) {
+        Long version = stables.get(stableId);
+        return Math.max(version == null ? 0 : version, floor.get());
+    }
+
+    public String globalTag() {
+        return "\"" + epoch + "-" + global() + "\"";
+    }
+
+    public String stableTag(Long stableId) {
+        return "\"" + epoch + "-" + stableId + "-" + stable(stableId) + "\"";
+    }
+
+    void bump(Long stableId) {
+        long version = global.incrementAndGet();
+        if (stableId != null) stables.merge(stableId, version, Math::max);
+    }
+
+    void bumpAll() {
+        long version = global.incrementAndGet();
+        floor.accumulateAndGet(version, Math::max);
+    }
+}
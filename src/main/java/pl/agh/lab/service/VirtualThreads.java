@@ -0,0 +1,29 @@
+package pl.agh.lab.service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class VirtualThreads {
+
+    private static final int MIN_FEATURE = 21;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= MIN_FEATURE;
+    }
+
+    public static ExecutorService newPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java " + MIN_FEATURE + "+, running on Java "
+                    + Runtime.version().feature());
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads are not available on this JVM", e);
+        }
+    }
+}
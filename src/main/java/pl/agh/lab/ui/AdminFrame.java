@@ -2,21 +2,28 @@
 package pl.agh.lab.ui;
 
 import pl.agh.lab.model.*;
-import pl.agh.lab.service.HorseOperationException;
+import pl.agh.lab.service.HorseQuery;
 import pl.agh.lab.service.StableOperationException;
 import pl.agh.lab.service.StableService;
-import pl.agh.lab.service.ValidationException;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import java.awt.*;
-import java.util.List;
 
 public class AdminFrame extends JFrame {
 
+    private static final int FILTER_DELAY_MS = 300;
+
     private final StableService service;
 
+    private BackgroundLoader stableLoader;
+    private BackgroundLoader horseLoader;
+    private Timer filterDebounce;
+    private LiveUpdates liveUpdates;
+
     private StableTableModel stableTableModel;
     private HorseTableModel horseTableModel;
 
@@ -33,10 +40,17 @@ public class AdminFrame extends JFrame {
     private JButton addHorseButton;
     private JButton removeHorseButton;
 
+    private JProgressBar stableLoadingBar;
+    private JProgressBar horseLoadingBar;
+
     public AdminFrame(StableService service) {
         this.service = service;
         initUI();
-        reloadStables(false);
+        liveUpdates = new LiveUpdates(service.getChangeFeed(), stableTable, stableTableModel, stableLoader,
+                horseTableModel, () -> stateComboBox.getSelectedItem() instanceof HorseCondition,
+                filterDebounce::restart, this::refreshHorsesWithFilters);
+        liveUpdates.attach(this);
+        liveUpdates.reload(service::getStableSummaries);
     }
 
     private void initUI() {
@@ -69,18 +83,24 @@ public class AdminFrame extends JFrame {
         root.add(topBar, BorderLayout.NORTH);
 
         stableTableModel = new StableTableModel();
-        horseTableModel = new HorseTableModel();
+        horseTableModel = new HorseTableModel(service);
 
         stableTable = new JTable(stableTableModel);
         horseTable = new JTable(horseTableModel);
 
         configureTable(stableTable);
         configureTable(horseTable);
+        horseTableModel.installSortHeader(horseTable, this::refreshHorsesWithFilters);
+
+        stableLoadingBar = createLoadingBar();
+        horseLoadingBar = createLoadingBar();
+        stableLoader = new BackgroundLoader(stableLoadingBar, ex -> showError(ex.getMessage()));
+        horseLoader = new BackgroundLoader(horseLoadingBar, ex -> showError(ex.getMessage()));
 
         JSplitPane splitPane = new JSplitPane(
                 JSplitPane.HORIZONTAL_SPLIT,
-                wrapInCard("Stables", new JScrollPane(stableTable)),
-                wrapInCard("Horses", createHorsePanel())
+                wrapInCard("Stables", new JScrollPane(stableTable), stableLoadingBar),
+                wrapInCard("Horses", createHorsePanel(), horseLoadingBar)
         );
         splitPane.setResizeWeight(0.35);
         splitPane.setBorder(null);
@@ -95,10 +115,27 @@ public class AdminFrame extends JFrame {
         addHorseButton.addActionListener(e -> onAddHorse());
         removeHorseButton.addActionListener(e -> onRemoveHorse());
 
+        filterDebounce = new Timer(FILTER_DELAY_MS, e -> refreshHorsesWithFilters());
+        filterDebounce.setRepeats(false);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { filterDebounce.restart(); }
+        });
         filterField.addActionListener(e -> refreshHorsesWithFilters());
         stateComboBox.addActionListener(e -> refreshHorsesWithFilters());
     }
 
+    private JProgressBar createLoadingBar() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setPreferredSize(new Dimension(80, 12));
+        return bar;
+    }
+
     private void configureTable(JTable table) {
         table.setFillsViewportHeight(true);
         table.setRowHeight(24);
@@ -108,7 +145,7 @@ public class AdminFrame extends JFrame {
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
     }
 
-    private JPanel wrapInCard(String title, JComponent content) {
+    private JPanel wrapInCard(String title, JComponent content, JComponent indicator) {
         JPanel card = new JPanel(new BorderLayout());
         card.setOpaque(true);
         card.setBackground(new Color(255, 255, 255, 235));
@@ -120,6 +157,7 @@ public class AdminFrame extends JFrame {
         JPanel header = new JPanel(new BorderLayout());
         header.setOpaque(false);
         header.add(label, BorderLayout.WEST);
+        header.add(indicator, BorderLayout.EAST);
 
         card.add(header, BorderLayout.NORTH);
         card.add(content, BorderLayout.CENTER);
@@ -138,7 +176,7 @@ public class AdminFrame extends JFrame {
         filterField = new JTextField();
         filterField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 28));
         filterField.putClientProperty("JComponent.sizeVariant", "small");
-        filterField.setToolTipText("Filter by name / breed (press Enter)");
+        filterField.setToolTipText("Filter by name / breed");
 
         stateComboBox = new JComboBox<>();
         stateComboBox.addItem("All states");
@@ -162,7 +200,9 @@ public class AdminFrame extends JFrame {
         top.add(removeHorseButton);
 
         panel.add(top, BorderLayout.NORTH);
-        panel.add(new JScrollPane(horseTable), BorderLayout.CENTER);
+        JScrollPane horseScroll = new JScrollPane(horseTable);
+        horseTableModel.installRetryOnScroll(horseScroll);
+        panel.add(horseScroll, BorderLayout.CENTER);
 
         return panel;
     }
@@ -182,19 +222,18 @@ public class AdminFrame extends JFrame {
                 JOptionPane.PLAIN_MESSAGE);
         if (capacityStr == null || capacityStr.isBlank()) return;
 
+        int capacity;
         try {
-            int capacity = Integer.parseInt(capacityStr.trim());
-            service.addStable(name.trim(), capacity);
-            reloadStables(false);
+            capacity = Integer.parseInt(capacityStr.trim());
         } catch (NumberFormatException ex) {
             showError("Capacity must be an integer");
-        } catch (ValidationException ex) {
-            showError(ex.getMessage());
+            return;
         }
+        stableLoader.run(() -> service.addStable(name.trim(), capacity), added -> {});
     }
 
     private void onRemoveStable() {
-        Stable stable = getSelectedStable();
+        StableRow stable = getSelectedStable();
         if (stable == null) {
             showError("No stable selected");
             return;
@@ -202,28 +241,24 @@ public class AdminFrame extends JFrame {
 
         int confirm = JOptionPane.showConfirmDialog(
                 this,
-                "Remove stable '" + stable.getStableName() + "'?",
+                "Remove stable '" + stable.stableName() + "'?",
                 "Confirm remove",
                 JOptionPane.YES_NO_OPTION
         );
         if (confirm != JOptionPane.YES_OPTION) return;
 
-        try {
-            service.removeStable(stable.getId());
-            reloadStables(false);
-            horseTableModel.setHorses(List.of());
-        } catch (StableOperationException ex) {
-            showError(ex.getMessage());
-        }
+        stableLoader.run(() -> {
+            service.removeStable(stable.id());
+            return null;
+        }, removed -> {});
     }
 
     private void onSortStables() {
-        List<Stable> sorted = service.sortStablesByCurrentLoad();
-        stableTableModel.setStables(sorted);
+        liveUpdates.reload(service::getStableSummariesByLoad);
     }
 
     private void onAddHorse() {
-        Stable stable = getSelectedStable();
+        StableRow stable = getSelectedStable();
         if (stable == null) {
             showError("Select a stable first");
             return;
@@ -269,45 +304,41 @@ public class AdminFrame extends JFrame {
 
         if (res != JOptionPane.OK_OPTION) return;
 
+        String name = nameField.getText();
+        String breed = breedField.getText();
+        HorseCondition status = (HorseCondition) statusBox.getSelectedItem();
+        String chip = chipField.getText();
+        int age;
+        double price;
+        double weight;
+        double height;
+        HorseType type;
         try {
-            String name = nameField.getText();
-            String breed = breedField.getText();
-            String typeStr = typeField.getText();
-            HorseCondition status = (HorseCondition) statusBox.getSelectedItem();
-            int age = Integer.parseInt(ageField.getText().trim());
-            double price = Double.parseDouble(priceField.getText().trim());
-            double weight = Double.parseDouble(weightField.getText().trim());
-            double height = Double.parseDouble(heightField.getText().trim());
-            String chip = chipField.getText();
-
-            var type = Enum.valueOf(pl.agh.lab.model.HorseType.class, typeStr.trim());
-
-            service.addHorse(
-                    stable,
-                    name,
-                    breed,
-                    type,
-                    status,
-                    age,
-                    price,
-                    weight,
-                    height,
-                    chip,
-                    new java.util.Date()
-            );
-            refreshHorsesWithFilters();
-            reloadStables(false);
+            age = Integer.parseInt(ageField.getText().trim());
+            price = Double.parseDouble(priceField.getText().trim());
+            weight = Double.parseDouble(weightField.getText().trim());
+            height = Double.parseDouble(heightField.getText().trim());
         } catch (NumberFormatException ex) {
             showError("Numeric fields (age, price, weight, height) must be valid numbers");
+            return;
+        }
+        try {
+            type = HorseType.valueOf(typeField.getText().trim());
         } catch (IllegalArgumentException ex) {
             showError("Invalid horse type enum name");
-        } catch (ValidationException | StableOperationException | HorseOperationException ex) {
-            showError(ex.getMessage());
+            return;
         }
+
+        horseLoader.run(() -> {
+            Stable target = service.getStable(stable.id())
+                    .orElseThrow(() -> new StableOperationException("Stable not found"));
+            return service.addHorse(target, name, breed, type, status, age, price, weight, height, chip,
+                    new java.util.Date());
+        }, added -> {});
     }
 
     private void onRemoveHorse() {
-        Stable stable = getSelectedStable();
+        StableRow stable = getSelectedStable();
         if (stable == null) {
             showError("Select a stable first");
             return;
@@ -326,42 +357,18 @@ public class AdminFrame extends JFrame {
         );
         if (confirm != JOptionPane.YES_OPTION) return;
 
-        try {
-            service.removeHorse(stable, horse);
-            refreshHorsesWithFilters();
-            reloadStables(false);
-        } catch (StableOperationException | HorseOperationException ex) {
-            showError(ex.getMessage());
-        }
-    }
-
-    private void reloadStables(boolean keepSelection) {
-        int selectedRow = stableTable.getSelectedRow();
-        Stable previouslySelected = null;
-        if (keepSelection && selectedRow >= 0) {
-            previouslySelected = stableTableModel.getStableAt(selectedRow);
-        }
-
-        List<Stable> all = service.getAllStables();
-        stableTableModel.setStables(all);
-
-        if (keepSelection && previouslySelected != null) {
-            for (int i = 0; i < all.size(); i++) {
-                if (all.get(i).getStableName().equals(previouslySelected.getStableName())) {
-                    stableTable.setRowSelectionInterval(i, i);
-                    break;
-                }
-            }
-        } else if (!all.isEmpty()) {
-            stableTable.setRowSelectionInterval(0, 0);
-        }
-        refreshHorsesWithFilters();
+        horseLoader.run(() -> {
+            service.removeHorse(horse.getId());
+            return null;
+        }, removed -> {});
     }
 
     private void refreshHorsesWithFilters() {
-        Stable stable = getSelectedStable();
+        filterDebounce.stop();
+        StableRow stable = getSelectedStable();
         if (stable == null) {
-            horseTableModel.setHorses(List.of());
+            horseLoader.cancel();
+            horseTableModel.clear();
             return;
         }
 
@@ -371,14 +378,11 @@ public class AdminFrame extends JFrame {
                 ? (HorseCondition) selectedState
                 : null;
 
-        List<Horse> horses = service.filterHorses(stable, text, condition);
-        var ratingStats = service.getHorseRatingStatsForStable(stable);
-
-        horseTableModel.setHorsesWithStats(horses, ratingStats);
-
+        HorseQuery query = horseTableModel.query(stable.id(), text, condition);
+        horseLoader.load(() -> horseTableModel.fetch(query), horseTableModel::apply);
     }
 
-    private Stable getSelectedStable() {
+    private StableRow getSelectedStable() {
         int row = stableTable.getSelectedRow();
         return stableTableModel.getStableAt(row);
     }
@@ -0,0 +1,86 @@
+package pl.agh.lab.ui;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+class BackgroundLoader {
+
+    private final JComponent indicator;
+    private final Consumer<Throwable> onError;
+
+    private SwingWorker<?, ?> current;
+    private long generation;
+
+    BackgroundLoader(JComponent indicator, Consumer<Throwable> onError) {
+        this.indicator = indicator;
+        this.onError = onError;
+        indicator.setVisible(false);
+    }
+
+    <T> void load(Callable<T> task, Consumer<T> onLoaded) {
+        load(task, onLoaded, () -> {});
+    }
+
+    <T> void load(Callable<T> task, Consumer<T> onLoaded, Runnable onFailed) {
+        long loadGeneration = ++generation;
+        if (current != null) {
+            current.cancel(false);
+        }
+        indicator.setVisible(true);
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                if (loadGeneration != generation) return;
+                current = null;
+                indicator.setVisible(false);
+                deliver(this, onLoaded, onFailed);
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    <T> void run(Callable<T> task, Consumer<T> onDone) {
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                deliver(this, onDone, () -> {});
+            }
+        }.execute();
+    }
+
+    void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+        indicator.setVisible(false);
+    }
+
+    private <T> void deliver(SwingWorker<T, Void> worker, Consumer<T> onDone, Runnable onFailed) {
+        try {
+            onDone.accept(worker.get());
+        } catch (CancellationException ignored) {
+        } catch (ExecutionException e) {
+            onError.accept(e.getCause());
+            onFailed.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,14 +5,22 @@ import pl.agh.lab.service.*;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import java.awt.*;
-import java.util.List;
 
 public class ClientFrame extends JFrame {
 
+    private static final int FILTER_DELAY_MS = 300;
+
     private final StableService service;
 
+    private BackgroundLoader stableLoader;
+    private BackgroundLoader horseLoader;
+    private Timer filterDebounce;
+    private LiveUpdates liveUpdates;
+
     private StableTableModel stableTableModel;
     private HorseTableModel horseTableModel;
 
@@ -25,10 +33,17 @@ public class ClientFrame extends JFrame {
 
     private JButton rateHorseButton;
 
+    private JProgressBar stableLoadingBar;
+    private JProgressBar horseLoadingBar;
+
     public ClientFrame(StableService service) {
         this.service = service;
         initUI();
-        reloadStables();
+        liveUpdates = new LiveUpdates(service.getChangeFeed(), stableTable, stableTableModel, stableLoader,
+                horseTableModel, () -> stateComboBox.getSelectedItem() instanceof HorseCondition,
+                filterDebounce::restart, this::refreshHorsesWithFilters);
+        liveUpdates.attach(this);
+        liveUpdates.reload(service::getStableSummaries);
     }
 
     private void initUI() {
@@ -57,18 +72,24 @@ public class ClientFrame extends JFrame {
         root.add(topBar, BorderLayout.NORTH);
 
         stableTableModel = new StableTableModel();
-        horseTableModel = new HorseTableModel();
+        horseTableModel = new HorseTableModel(service);
 
         stableTable = new JTable(stableTableModel);
         horseTable = new JTable(horseTableModel);
 
         configureTable(stableTable);
         configureTable(horseTable);
+        horseTableModel.installSortHeader(horseTable, this::refreshHorsesWithFilters);
+
+        stableLoadingBar = createLoadingBar();
+        horseLoadingBar = createLoadingBar();
+        stableLoader = new BackgroundLoader(stableLoadingBar, ex -> showError(ex.getMessage()));
+        horseLoader = new BackgroundLoader(horseLoadingBar, ex -> showError(ex.getMessage()));
 
         JSplitPane splitPane = new JSplitPane(
                 JSplitPane.HORIZONTAL_SPLIT,
-                wrapInCard("Stables", new JScrollPane(stableTable)),
-                wrapInCard("Horses", createHorsePanel())
+                wrapInCard("Stables", new JScrollPane(stableTable), stableLoadingBar),
+                wrapInCard("Horses", createHorsePanel(), horseLoadingBar)
         );
         splitPane.setResizeWeight(0.35);
         splitPane.setBorder(null);
@@ -76,11 +97,28 @@ public class ClientFrame extends JFrame {
         root.add(splitPane, BorderLayout.CENTER);
 
         stableTable.getSelectionModel().addListSelectionListener(this::onStableSelectionChanged);
+        filterDebounce = new Timer(FILTER_DELAY_MS, e -> refreshHorsesWithFilters());
+        filterDebounce.setRepeats(false);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { filterDebounce.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { filterDebounce.restart(); }
+        });
         filterField.addActionListener(e -> refreshHorsesWithFilters());
         stateComboBox.addActionListener(e -> refreshHorsesWithFilters());
         requestContactButton.addActionListener(e -> onRequestContact());
     }
 
+    private JProgressBar createLoadingBar() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setPreferredSize(new Dimension(80, 12));
+        return bar;
+    }
+
     private void configureTable(JTable table) {
         table.setFillsViewportHeight(true);
         table.setRowHeight(24);
@@ -90,7 +128,7 @@ public class ClientFrame extends JFrame {
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
     }
 
-    private JPanel wrapInCard(String title, JComponent content) {
+    private JPanel wrapInCard(String title, JComponent content, JComponent indicator) {
         JPanel card = new JPanel(new BorderLayout());
         card.setOpaque(true);
         card.setBackground(new Color(255, 255, 255, 235));
@@ -102,6 +140,7 @@ public class ClientFrame extends JFrame {
         JPanel header = new JPanel(new BorderLayout());
         header.setOpaque(false);
         header.add(label, BorderLayout.WEST);
+        header.add(indicator, BorderLayout.EAST);
 
         card.add(header, BorderLayout.NORTH);
         card.add(content, BorderLayout.CENTER);
@@ -119,7 +158,7 @@ public class ClientFrame extends JFrame {
 
         filterField = new JTextField();
         filterField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 28));
-        filterField.setToolTipText("Filter by name / breed (press Enter)");
+        filterField.setToolTipText("Filter by name / breed");
 
         stateComboBox = new JComboBox<>();
         stateComboBox.addItem("All states");
@@ -137,7 +176,9 @@ public class ClientFrame extends JFrame {
         top.add(Box.createHorizontalGlue());
 
         panel.add(top, BorderLayout.NORTH);
-        panel.add(new JScrollPane(horseTable), BorderLayout.CENTER);
+        JScrollPane horseScroll = new JScrollPane(horseTable);
+        horseTableModel.installRetryOnScroll(horseScroll);
+        panel.add(horseScroll, BorderLayout.CENTER);
 
         return panel;
     }
@@ -148,15 +189,15 @@ public class ClientFrame extends JFrame {
     }
 
     private void onRequestContact() {
-        Stable stable = getSelectedStable();
+        StableRow stable = getSelectedStable();
         Horse horse = getSelectedHorse();
 
         String target;
         if (horse != null) {
             target = "about horse '" + horse.getName() + "' in stable '" +
-                    (stable != null ? stable.getStableName() : "?") + "'";
+                    (stable != null ? stable.stableName() : "?") + "'";
         } else if (stable != null) {
-            target = "about stable '" + stable.getStableName() + "'";
+            target = "about stable '" + stable.stableName() + "'";
         } else {
             target = "about available horses";
         }
@@ -195,34 +236,25 @@ public class ClientFrame extends JFrame {
 
         if (res != JOptionPane.OK_OPTION) return;
 
+        int value;
         try {
-            int value = Integer.parseInt(valueField.getText().trim());
-            String desc = descField.getText();
-
-            service.addRatingToHorse(horse.getId(), value, desc);
-
-            refreshHorsesWithFilters();
-
+            value = Integer.parseInt(valueField.getText().trim());
         } catch (NumberFormatException ex) {
             showError("Rating must be an integer between 0 and 5");
-        } catch (ValidationException | HorseOperationException ex) {
-            showError(ex.getMessage());
+            return;
         }
-    }
+        String desc = descField.getText();
 
-    private void reloadStables() {
-        List<Stable> all = service.getAllStables();
-        stableTableModel.setStables(all);
-        if (!all.isEmpty()) {
-            stableTable.setRowSelectionInterval(0, 0);
-        }
-        refreshHorsesWithFilters();
+        horseLoader.run(() -> service.addRatingToHorse(horse.getId(), value, desc),
+                rating -> {});
     }
 
     private void refreshHorsesWithFilters() {
-        Stable stable = getSelectedStable();
+        filterDebounce.stop();
+        StableRow stable = getSelectedStable();
         if (stable == null) {
-            horseTableModel.setHorsesWithStats(List.of(), List.of());
+            horseLoader.cancel();
+            horseTableModel.clear();
             return;
         }
 
@@ -232,16 +264,11 @@ public class ClientFrame extends JFrame {
                 ? (HorseCondition) selectedState
                 : null;
 
-        List<Horse> horses = service.filterHorses(stable, text, condition);
-
-        var ratingStats = service.getHorseRatingStatsForStable(stable);
-
-        horseTableModel.setHorsesWithStats(horses, ratingStats);
-
+        HorseQuery query = horseTableModel.query(stable.id(), text, condition);
+        horseLoader.load(() -> horseTableModel.fetch(query), horseTableModel::apply);
     }
 
-
-    private Stable getSelectedStable() {
+    private StableRow getSelectedStable() {
         int row = stableTable.getSelectedRow();
         return stableTableModel.getStableAt(row);
     }
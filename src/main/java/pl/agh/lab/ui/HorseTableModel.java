@@ -1,46 +1,141 @@
 package pl.agh.lab.ui;
 
 import pl.agh.lab.model.Horse;
-import pl.agh.lab.service.HorseRatingStat;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.service.HorseQuery;
+import pl.agh.lab.service.HorseSortKey;
+import pl.agh.lab.service.StableService;
 
+import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 public class HorseTableModel extends AbstractTableModel {
 
+    public static final int BLOCK_SIZE = 200;
+    private static final int MAX_BLOCKS = 25;
+    private static final String LOADING = "Loading…";
+    private static final String LOAD_FAILED = "Load failed – scroll to retry";
+
+    private static final HorseSortKey[] SORT_KEYS = {
+            HorseSortKey.NAME, HorseSortKey.BREED, HorseSortKey.TYPE, HorseSortKey.STATUS,
+            HorseSortKey.AGE, HorseSortKey.PRICE, HorseSortKey.WEIGHT, HorseSortKey.HEIGHT,
+            HorseSortKey.RATING_COUNT, null
+    };
+
     private final String[] columns = {
             "Name", "Breed", "Type", "Status",
             "Age", "Price (PLN)", "Weight (kg)", "Height (cm)", "#Ratings", "Avg rating"
     };
 
-    private List<Horse> horses = new ArrayList<>();
-    private Map<String, HorseRatingStat> ratingStatsByName = new HashMap<>();
+    private final StableService service;
 
-    public void setHorses(List<Horse> horses) {
-        this.horses = new ArrayList<>(horses);
-        fireTableDataChanged();
+    private final LinkedHashMap<Integer, List<Horse>> blocks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Horse>> eldest) {
+            return size() > MAX_BLOCKS;
+        }
+    };
+    private final Set<Integer> pending = new HashSet<>();
+    private final Set<Integer> failed = new HashSet<>();
+
+    private HorseQuery query;
+    private int rowCount;
+    private long generation;
+    private HorseSortKey sortKey;
+    private boolean ascending = true;
+
+    public HorseTableModel(StableService service) {
+        this.service = service;
+    }
+
+    public record Window(HorseQuery query, int rowCount, List<Horse> firstBlock) {}
+
+    public HorseQuery query(Long stableId, String fragment, HorseCondition status) {
+        return new HorseQuery(stableId, fragment, status, sortKey, ascending);
     }
 
-    public void setHorsesWithStats(List<Horse> horses, List<HorseRatingStat> stats) {
-        this.horses = new ArrayList<>(horses);
-        this.ratingStatsByName = new HashMap<>();
-        for (HorseRatingStat s : stats) {
-            ratingStatsByName.put(s.getHorseName().toLowerCase(Locale.ROOT), s);
+    public Window fetch(HorseQuery query) throws Exception {
+        int count = (int) Math.min(Integer.MAX_VALUE, service.countHorses(query));
+        List<Horse> first = count == 0 ? List.of() : service.getHorseWindow(query, 0, BLOCK_SIZE);
+        return new Window(query, count, first);
+    }
+
+    public void apply(Window window) {
+        resetBlocks();
+        query = window.query();
+        rowCount = window.rowCount();
+        if (!window.firstBlock().isEmpty()) {
+            blocks.put(0, window.firstBlock());
         }
         fireTableDataChanged();
     }
 
+    public void clear() {
+        resetBlocks();
+        query = null;
+        rowCount = 0;
+        fireTableDataChanged();
+    }
+
+    public void installSortHeader(JTable table, Runnable onSortChanged) {
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (!toggleSort(column)) return;
+                for (int i = 0; i < table.getColumnCount(); i++) {
+                    table.getColumnModel().getColumn(i).setHeaderValue(getColumnName(table.convertColumnIndexToModel(i)));
+                }
+                table.getTableHeader().repaint();
+                onSortChanged.run();
+            }
+        });
+    }
+
+    public void installRetryOnScroll(JScrollPane scrollPane) {
+        scrollPane.getViewport().addChangeListener(e -> retryFailed());
+    }
+
+    public void retryFailed() {
+        failed.clear();
+    }
+
+    public boolean toggleSort(int column) {
+        if (column < 0 || column >= SORT_KEYS.length || SORT_KEYS[column] == null) return false;
+        HorseSortKey key = SORT_KEYS[column];
+        ascending = key != sortKey || !ascending;
+        sortKey = key;
+        return true;
+    }
+
+    public boolean refreshHorse(Long horseId) {
+        for (Map.Entry<Integer, List<Horse>> entry : blocks.entrySet()) {
+            for (Horse h : entry.getValue()) {
+                if (h.getId().equals(horseId)) {
+                    loadBlock(entry.getKey());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 
     public Horse getHorseAt(int row) {
-        if (row < 0 || row >= horses.size()) {
+        if (row < 0 || row >= rowCount) {
             return null;
         }
-        return horses.get(row);
+        List<Horse> block = blocks.get(row / BLOCK_SIZE);
+        int index = row % BLOCK_SIZE;
+        return block != null && index < block.size() ? block.get(index) : null;
     }
 
     @Override
     public int getRowCount() {
-        return horses.size();
+        return rowCount;
     }
 
     @Override
@@ -50,12 +145,24 @@ public class HorseTableModel extends AbstractTableModel {
 
     @Override
     public String getColumnName(int column) {
+        if (SORT_KEYS[column] != null && SORT_KEYS[column] == sortKey) {
+            return columns[column] + (ascending ? " ▲" : " ▼");
+        }
         return columns[column];
     }
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Horse h = horses.get(rowIndex);
+        Horse h = getHorseAt(rowIndex);
+        if (h == null) {
+            int block = rowIndex / BLOCK_SIZE;
+            if (failed.contains(block)) return columnIndex == 0 ? LOAD_FAILED : null;
+            requestBlock(block);
+            return columnIndex == 0 ? LOADING : null;
+        }
+        if (rowIndex % BLOCK_SIZE >= BLOCK_SIZE * 3 / 4) {
+            requestBlock(rowIndex / BLOCK_SIZE + 1);
+        }
         return switch (columnIndex) {
             case 0 -> h.getName();
             case 1 -> h.getBreed();
@@ -65,22 +172,56 @@ public class HorseTableModel extends AbstractTableModel {
             case 5 -> String.format("%.2f", h.getPrice());
             case 6 -> String.format("%.1f", h.getWeightKg());
             case 7 -> String.format("%.1f", h.getHeightCm());
-            case 8 -> {
-                HorseRatingStat stat = ratingStatsByName.get(
-                        h.getName().toLowerCase(Locale.ROOT)
-                );
-                yield stat != null ? stat.getCount() : 0L;
-            }
+            case 8 -> h.getRatingCount();
             case 9 -> {
-                HorseRatingStat stat = ratingStatsByName.get(
-                        h.getName().toLowerCase(Locale.ROOT)
-                );
-                yield stat != null
-                        ? String.format(Locale.ROOT, "%.2f", stat.getAverage())
+                Double average = h.getAverageRating();
+                yield average != null
+                        ? String.format(Locale.ROOT, "%.2f", average)
                         : "-";
             }
             default -> null;
         };
     }
 
+    private void requestBlock(int block) {
+        if (blocks.containsKey(block) || failed.contains(block)) return;
+        loadBlock(block);
+    }
+
+    private void loadBlock(int block) {
+        if (query == null || block * BLOCK_SIZE >= rowCount || !pending.add(block)) return;
+
+        long blockGeneration = generation;
+        HorseQuery blockQuery = query;
+        new SwingWorker<List<Horse>, Void>() {
+            @Override
+            protected List<Horse> doInBackground() throws Exception {
+                return service.getHorseWindow(blockQuery, block * BLOCK_SIZE, BLOCK_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (blockGeneration != generation) return;
+                pending.remove(block);
+                try {
+                    blocks.put(block, get());
+                    failed.remove(block);
+                } catch (ExecutionException e) {
+                    failed.add(block);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int first = block * BLOCK_SIZE;
+                fireTableRowsUpdated(first, Math.min(rowCount, first + BLOCK_SIZE) - 1);
+            }
+        }.execute();
+    }
+
+    private void resetBlocks() {
+        generation++;
+        blocks.clear();
+        pending.clear();
+        failed.clear();
+    }
 }
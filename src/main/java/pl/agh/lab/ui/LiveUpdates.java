@@ -0,0 +1,116 @@
+package pl.agh.lab.ui;
+
+import pl.agh.lab.service.StableChange;
+import pl.agh.lab.service.StableChangeFeed;
+import pl.agh.lab.service.StableSummary;
+
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+
+final class LiveUpdates {
+
+    private final StableChangeFeed feed;
+    private final JTable stableTable;
+    private final StableTableModel stables;
+    private final BackgroundLoader stableLoader;
+    private final HorseTableModel horses;
+    private final BooleanSupplier filtersByStatus;
+    private final Runnable horsesChanged;
+    private final Runnable reloadHorses;
+
+    private List<StableChange> pending = new ArrayList<>();
+    private Callable<List<StableSummary>> source;
+
+    LiveUpdates(StableChangeFeed feed, JTable stableTable, StableTableModel stables, BackgroundLoader stableLoader,
+                HorseTableModel horses, BooleanSupplier filtersByStatus, Runnable horsesChanged, Runnable reloadHorses) {
+        this.feed = feed;
+        this.stableTable = stableTable;
+        this.stables = stables;
+        this.stableLoader = stableLoader;
+        this.horses = horses;
+        this.filtersByStatus = filtersByStatus;
+        this.horsesChanged = horsesChanged;
+        this.reloadHorses = reloadHorses;
+    }
+
+    void attach(JFrame frame) {
+        StableChangeFeed.Subscription subscription =
+                feed.subscribe(change -> SwingUtilities.invokeAndWait(() -> onChange(change)));
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                subscription.cancel();
+            }
+        });
+    }
+
+    void reload(Callable<List<StableSummary>> query) {
+        source = query;
+        Long selectedId = selectedStableId();
+        if (pending == null) pending = new ArrayList<>();
+        stableLoader.load(() -> new Snapshot(feed.lastSequence(), query.call()), snapshot -> {
+            stables.setStables(snapshot.stables());
+            replayPending(snapshot.sequence());
+            select(selectedId);
+            reloadHorses.run();
+        }, () -> replayPending(0));
+    }
+
+    private void onChange(StableChange change) {
+        if (change.type() == StableChange.Type.RESYNC) {
+            if (source != null) reload(source);
+            return;
+        }
+        if (pending != null) {
+            pending.add(change);
+            return;
+        }
+        stables.apply(change);
+
+        StableRow selected = stables.getStableAt(stableTable.getSelectedRow());
+        if (selected == null || !selected.id().equals(change.stableId())) return;
+        switch (change.type()) {
+            case HORSE_ADDED, HORSES_IMPORTED, HORSE_REMOVED -> horsesChanged.run();
+            case HORSE_STATUS_CHANGED -> {
+                if (filtersByStatus.getAsBoolean()) {
+                    horsesChanged.run();
+                } else {
+                    horses.refreshHorse(change.horseId());
+                }
+            }
+            case RATINGS_ADDED -> horses.refreshHorse(change.horseId());
+            default -> {
+            }
+        }
+    }
+
+    private void replayPending(long loadedSequence) {
+        List<StableChange> buffered = pending;
+        pending = null;
+        if (buffered == null) return;
+        for (StableChange change : buffered) {
+            if (change.sequence() > loadedSequence) stables.apply(change);
+        }
+    }
+
+    private Long selectedStableId() {
+        StableRow selected = stables.getStableAt(stableTable.getSelectedRow());
+        return selected == null ? null : selected.id();
+    }
+
+    private void select(Long stableId) {
+        int row = stableId == null ? -1 : stables.indexOf(stableId);
+        if (row < 0 && stables.getRowCount() > 0) row = 0;
+        if (row >= 0) {
+            stableTable.setRowSelectionInterval(row, row);
+        }
+    }
+
+    private record Snapshot(long sequence, List<StableSummary> stables) {
+    }
+}
@@ -0,0 +1,22 @@
+package pl.agh.lab.ui;
+
+import pl.agh.lab.service.StableSummary;
+
+public record StableRow(Long id, String stableName, long currentLoad, int maxCapacity, double totalValue,
+                        String currentLoadText, String maxCapacityText, String totalValueText) {
+
+    public static StableRow of(StableSummary s) {
+        return of(s.getId(), s.getStableName(), s.getCurrentLoad(), s.getMaxCapacity(), s.getTotalValue());
+    }
+
+    public static StableRow of(Long id, String stableName, long currentLoad, int maxCapacity, double totalValue) {
+        return new StableRow(id, stableName, currentLoad, maxCapacity, totalValue,
+                Long.toString(currentLoad),
+                Integer.toString(maxCapacity),
+                String.format("%.2f", totalValue));
+    }
+
+    public StableRow withDelta(long loadDelta, double valueDelta) {
+        return of(id, stableName, currentLoad + loadDelta, maxCapacity, totalValue + valueDelta);
+    }
+}
@@ -1,32 +1,74 @@
 // src/ui/StableTableModel.java
 package pl.agh.lab.ui;
 
-import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.StableChange;
+import pl.agh.lab.service.StableSummary;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class StableTableModel extends AbstractTableModel {
 
     private final String[] columns = {"Name", "Current load", "Max capacity", "Total value (PLN)"};
-    private List<Stable> stables = new ArrayList<>();
+    private final List<StableRow> rows = new ArrayList<>();
 
-    public void setStables(List<Stable> stables) {
-        this.stables = new ArrayList<>(stables);
+    public void setStables(List<StableSummary> stables) {
+        List<StableRow> updated = new ArrayList<>(stables.size());
+        for (StableSummary s : stables) {
+            updated.add(StableRow.of(s));
+        }
+        if (updated.equals(rows)) return;
+        rows.clear();
+        rows.addAll(updated);
         fireTableDataChanged();
     }
 
-    public Stable getStableAt(int row) {
-        if (row < 0 || row >= stables.size()) {
+    public void apply(StableChange change) {
+        int row = indexOf(change.stableId());
+        switch (change.type()) {
+            case STABLE_ADDED -> {
+                if (row >= 0) return;
+                rows.add(StableRow.of(change.stableId(), change.stableName(), 0, change.maxCapacity(), 0.0));
+                fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+            }
+            case STABLE_REMOVED -> {
+                if (row < 0) return;
+                rows.remove(row);
+                fireTableRowsDeleted(row, row);
+            }
+            case HORSE_ADDED, HORSES_IMPORTED, HORSE_REMOVED -> {
+                if (row < 0) return;
+                rows.set(row, rows.get(row).withDelta(change.horseDelta(), change.valueDelta()));
+                fireTableRowsUpdated(row, row);
+            }
+            default -> {
+            }
+        }
+    }
+
+    public List<StableRow> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    public int indexOf(Long stableId) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).id().equals(stableId)) return i;
+        }
+        return -1;
+    }
+
+    public StableRow getStableAt(int row) {
+        if (row < 0 || row >= rows.size()) {
             return null;
         }
-        return stables.get(row);
+        return rows.get(row);
     }
 
     @Override
     public int getRowCount() {
-        return stables.size();
+        return rows.size();
     }
 
     @Override
@@ -39,14 +81,19 @@ public class StableTableModel extends AbstractTableModel {
         return columns[column];
     }
 
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return String.class;
+    }
+
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Stable s = stables.get(rowIndex);
+        StableRow r = rows.get(rowIndex);
         return switch (columnIndex) {
-            case 0 -> s.getStableName();
-            case 1 -> s.getHorseList().size();
-            case 2 -> s.getMaxCapacity();
-            case 3 -> String.format("%.2f", s.totalValue());
+            case 0 -> r.stableName();
+            case 1 -> r.currentLoadText();
+            case 2 -> r.maxCapacityText();
+            case 3 -> r.totalValueText();
             default -> null;
         };
     }
@@ -0,0 +1,35 @@
+create table stables (
+    id bigint generated by default as identity,
+    stable_name varchar(255) not null,
+    max_capacity integer not null,
+    primary key (id),
+    constraint uk_stables_stable_name unique (stable_name)
+);
+
+create table horses (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    breed varchar(255) not null,
+    type varchar(255) not null check (type in ('ZIMNOKRWISTY','GORACOKRWISTY')),
+    status varchar(255) not null check (status in ('ZDROWY','CHORY','TRENING','KARENCJA','SPRZEDANY')),
+    age integer not null,
+    price float(53) not null,
+    weight_kg float(53) not null,
+    height_cm float(53) not null,
+    microchip_id varchar(255),
+    acquisition_date timestamp(6) not null,
+    stable_id bigint,
+    primary key (id)
+);
+
+create table ratings (
+    id bigint generated by default as identity,
+    rating_value integer not null,
+    rating_date timestamp(6) not null,
+    description varchar(255) not null,
+    horse_id bigint not null,
+    primary key (id)
+);
+
+alter table horses add constraint fk_horses_stable foreign key (stable_id) references stables;
+alter table ratings add constraint fk_ratings_horse foreign key (horse_id) references horses;
@@ -0,0 +1,15 @@
+alter table horses add column if not exists rating_count bigint default 0 not null;
+alter table horses add column if not exists rating_sum bigint default 0 not null;
+
+alter table stables add column if not exists current_load bigint default 0 not null;
+alter table stables add column if not exists total_value float(53) default 0 not null;
+alter table stables add column if not exists total_weight float(53) default 0 not null;
+
+update horses h set
+    rating_count = (select count(*) from ratings r where r.horse_id = h.id),
+    rating_sum = (select coalesce(sum(r.rating_value), 0) from ratings r where r.horse_id = h.id);
+
+update stables s set
+    current_load = (select count(*) from horses h where h.stable_id = s.id),
+    total_value = (select coalesce(sum(h.price), 0) from horses h where h.stable_id = s.id),
+    total_weight = (select coalesce(sum(h.weight_kg), 0) from horses h where h.stable_id = s.id);
@@ -0,0 +1,5 @@
+create sequence if not exists horses_seq start with 1 increment by 50;
+create sequence if not exists ratings_seq start with 1 increment by 50;
+
+alter table horses alter column id drop identity;
+alter table ratings alter column id drop identity;
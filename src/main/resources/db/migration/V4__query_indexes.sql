@@ -0,0 +1,4 @@
+create index if not exists idx_horses_stable on horses (stable_id);
+create index if not exists idx_horses_stable_identity on horses (stable_id, name, breed, age);
+create index if not exists idx_horses_stable_status on horses (stable_id, status);
+create index if not exists idx_ratings_horse_date on ratings (horse_id, rating_date);
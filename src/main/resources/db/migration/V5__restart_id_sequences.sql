@@ -0,0 +1,2 @@
+alter sequence horses_seq restart with (select coalesce(max(id), 0) + 50 from horses);
+alter sequence ratings_seq restart with (select coalesce(max(id), 0) + 50 from ratings);
@@ -0,0 +1,4 @@
+alter table horses add column if not exists name_key varchar(255) generated always as (lower(name));
+alter table horses add column if not exists breed_key varchar(255) generated always as (lower(breed));
+
+create index if not exists idx_horses_stable_identity_key on horses (stable_id, name_key, breed_key, age);
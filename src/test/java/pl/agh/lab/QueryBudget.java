@@ -0,0 +1,52 @@
+package pl.agh.lab;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+public final class QueryBudget {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    public <T> T atMost(int statements, int entities, Action<T> action) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        T result = action.run();
+        entityManager.flush();
+
+        long executed = statistics.getPrepareStatementCount();
+        long loaded = statistics.getEntityLoadCount() + statistics.getEntityFetchCount();
+        if (executed > statements || loaded > entities) {
+            throw new AssertionError(String.format(
+                    "Query budget exceeded: %d statements (budget %d), %d entities loaded (budget %d)",
+                    executed, statements, loaded, entities));
+        }
+        return result;
+    }
+
+    public void atMost(int statements, int entities, VoidAction action) throws Exception {
+        atMost(statements, entities, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @FunctionalInterface
+    public interface Action<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface VoidAction {
+        void run() throws Exception;
+    }
+}
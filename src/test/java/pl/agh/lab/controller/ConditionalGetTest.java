@@ -0,0 +1,120 @@
+package pl.agh.lab.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.StableService;
+import pl.agh.lab.service.StableVersions;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private StableVersions versions;
+
+    private Stable stable;
+    private Stable other;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stable = service.addStable("Etag-" + UUID.randomUUID(), 10);
+        other = service.addStable("Etag-" + UUID.randomUUID(), 10);
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (Stable s : new Stable[]{stable, other}) {
+            if (service.stableExists(s.getId())) service.removeStable(s.getId());
+        }
+    }
+
+    @Test
+    void testUnchangedStableAnswersNotModified() throws Exception {
+        String path = "/api/stable/" + stable.getId() + "/fill";
+        String etag = etag(path);
+
+        mockMvc.perform(get(path).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get(path).header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current").value(0));
+    }
+
+    @Test
+    void testMutationsChangeOnlyAffectedTags() throws Exception {
+        String stableTag = etag("/api/stable/" + stable.getId());
+        String fillTag = etag("/api/stable/" + stable.getId() + "/fill");
+        String otherTag = etag("/api/stable/" + other.getId());
+        String globalTag = etag("/api/stable");
+
+        Horse horse = service.addHorse(stable, "Etag", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, new Date());
+
+        String afterAdd = etag("/api/stable/" + stable.getId());
+        assertNotEquals(stableTag, afterAdd);
+        assertNotEquals(fillTag, etag("/api/stable/" + stable.getId() + "/fill"));
+        assertNotEquals(globalTag, etag("/api/stable"));
+        assertEquals(otherTag, etag("/api/stable/" + other.getId()));
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill").header("If-None-Match", fillTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current").value(1));
+
+        service.changeHorseStatus(horse.getId(), HorseCondition.ZDROWY);
+        assertEquals(afterAdd, etag("/api/stable/" + stable.getId()));
+
+        service.changeHorseStatus(horse.getId(), HorseCondition.CHORY);
+        assertNotEquals(afterAdd, etag("/api/stable/" + stable.getId()));
+        assertEquals(otherTag, etag("/api/stable/" + other.getId()));
+
+        service.reconcileStableLoads();
+        assertNotEquals(otherTag, etag("/api/stable/" + other.getId()));
+    }
+
+    @Test
+    void testMissingStableNeverAnswersNotModified() throws Exception {
+        Long missing = other.getId();
+        service.removeStable(missing);
+        String tag = versions.stableTag(missing);
+
+        for (String path : new String[]{"/api/stable/" + missing, "/api/stable/" + missing + "/fill"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isNotFound())
+                    .andExpect(header().doesNotExist("ETag"));
+            mockMvc.perform(get(path).header("If-None-Match", tag))
+                    .andExpect(status().isNotFound())
+                    .andExpect(header().doesNotExist("ETag"));
+        }
+    }
+
+    private String etag(String path) throws Exception {
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+        return etag;
+    }
+}
@@ -0,0 +1,84 @@
+package pl.agh.lab.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.StableRepository;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StableRepository stableRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testPrometheusEndpointExposesRequestServiceSqlAndCacheMetrics() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Metrics Stable", 5));
+
+        mockMvc.perform(get("/api/stable")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket"),
+                        containsString("uri=\"/api/stable/{id}/fill\""),
+                        containsString("stable_service_seconds_count{exception=\"none\",method=\"getStableSummary\""),
+                        containsString("http_server_requests_sql_statements_count"),
+                        containsString("db_statements_seconds_count"),
+                        containsString("stable_cache_gets_total{cache=\"stableSummary\",result=\"hit\""),
+                        containsString("stable_cache_hit_ratio"),
+                        containsString("stable_ratings_dropped_total"),
+                        containsString("hikaricp_connections_pending"))));
+    }
+
+    @Test
+    void testAsyncCsvExportStatementsAreCounted() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Metrics Csv Stable", 5));
+        long countBefore = csvStatements().count();
+        double totalBefore = csvStatements().totalAmount();
+
+        MvcResult result = mockMvc.perform(get("/api/stable/" + stable.getId() + "/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(countBefore, csvStatements().count());
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals(countBefore + 1, csvStatements().count());
+        assertTrue(csvStatements().totalAmount() - totalBefore >= 2);
+    }
+
+    private DistributionSummary csvStatements() {
+        return DistributionSummary.builder("http.server.requests.sql.statements")
+                .baseUnit("statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/stable/{id}/csv")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
@@ -0,0 +1,223 @@
+package pl.agh.lab.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.QueryBudget;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.service.StableService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class StableControllerQueryBudgetTest {
+
+    private static final int HORSES = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StableService service;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private QueryBudget budget;
+    private Stable stable;
+    private final List<Horse> horses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        budget = new QueryBudget(entityManager);
+        stable = service.addStable("Budget Stable", HORSES * 2);
+        for (int i = 0; i < HORSES; i++) {
+            horses.add(service.addHorse(stable, "Budget-" + i, "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                    3 + i % 10, 1000.0 + i, 450.0, 160.0, null, new Date()));
+        }
+        for (Horse horse : horses) {
+            service.addRatingToHorse(horse.getId(), 4, "budget");
+        }
+    }
+
+    @Test
+    void testAddHorseBudget() throws Exception {
+        String json = String.format("""
+            {"stableId": %d, "name": "Extra", "breed": "Arab", "type": "GORACOKRWISTY", "status": "ZDROWY",
+             "age": 4, "price": 100.0, "weightKg": 400.0, "heightCm": 150.0, "microchipId": null}
+        """, stable.getId());
+        budget.atMost(6, 1, () -> mockMvc.perform(post("/api/horse")
+                        .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    void testImportHorsesBudget() throws Exception {
+        StringBuilder csv = new StringBuilder("stableId,name,breed,type,status,age,price,weightKg,heightCm,microchipId\n");
+        for (int i = 0; i < HORSES; i++) {
+            csv.append(stable.getId()).append(",Imported-").append(i).append(",Fjord,ZIMNOKRWISTY,ZDROWY,5,900,500,150,\n");
+        }
+        budget.atMost(6, 0, () -> mockMvc.perform(post("/api/horse/import")
+                        .contentType("text/csv").content(csv.toString()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testSearchHorsesBudget() throws Exception {
+        budget.atMost(1, HORSES, () -> mockMvc.perform(get("/api/horse/search").param("q", "budget"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testDeleteHorseBudget() throws Exception {
+        Horse horse = service.addHorse(stable, "Unrated", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 100.0, 400.0, 150.0, null, new Date());
+        budget.atMost(3, 1, () -> mockMvc.perform(delete("/api/horse/" + horse.getId()))
+                .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testChangeHorseStatusBudget() throws Exception {
+        budget.atMost(2, 1, () -> mockMvc.perform(put("/api/horse/" + horses.get(0).getId() + "/status")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"CHORY\"}"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testGetAverageRatingBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/horse/rating/" + horses.get(0).getId()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testAddRatingBudget() throws Exception {
+        String json = String.format("{\"horseId\": %d, \"value\": 5, \"description\": \"ok\"}", horses.get(0).getId());
+        budget.atMost(4, 1, () -> mockMvc.perform(post("/api/horse/rating")
+                        .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    void testAddRatingsBatchBudget() throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < horses.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(String.format("{\"horseId\": %d, \"value\": 3, \"description\": \"batch\"}", horses.get(i).getId()));
+        }
+        json.append(']');
+        budget.atMost(1, 0, () -> mockMvc.perform(post("/api/horse/ratings")
+                        .contentType(MediaType.APPLICATION_JSON).content(json.toString()))
+                .andExpect(status().isAccepted()));
+    }
+
+    @Test
+    void testRebuildRatingAggregatesBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(post("/api/horse/rating/rebuild"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testGetAllStablesBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/stable"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testReconcileStableLoadsBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(post("/api/stable/load/reconcile"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testHerdTotalsBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/stable/totals"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testAggregateCheckBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/stable/aggregates/check"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testStablesByLoadBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/stable/by-load").param("top", "10"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testGetHorsesInStableBudget() throws Exception {
+        budget.atMost(2, 12, () -> mockMvc.perform(get("/api/stable/" + stable.getId()).param("limit", "10"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testGetStableCsvBudget() throws Exception {
+        budget.atMost(2, HORSES, () -> {
+            MvcResult result = mockMvc.perform(get("/api/stable/" + stable.getId() + "/csv"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        });
+    }
+
+    @Test
+    void testAddStableBudget() throws Exception {
+        budget.atMost(3, 0, () -> mockMvc.perform(post("/api/stable")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Budget New\", \"capacity\": 5}"))
+                .andExpect(status().isCreated()));
+    }
+
+    @Test
+    void testDeleteStableBudget() throws Exception {
+        Stable empty = service.addStable("Budget Empty", 5);
+        budget.atMost(5, 1, () -> mockMvc.perform(delete("/api/stable/" + empty.getId()))
+                .andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testGetStableFillBudget() throws Exception {
+        budget.atMost(1, 0, () -> mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testConditionalGetBudget() throws Exception {
+        for (String path : List.of("/api/stable", "/api/stable/" + stable.getId(), "/api/stable/" + stable.getId() + "/fill")) {
+            String etag = mockMvc.perform(get(path)).andReturn().getResponse().getHeader("ETag");
+            budget.atMost(0, 0, () -> mockMvc.perform(get(path).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified()));
+        }
+    }
+
+    @Test
+    void testHerdAnalyticsBudget() throws Exception {
+        budget.atMost(0, 0, () -> mockMvc.perform(get("/api/analytics/herd").param("groupBy", "breed,type,status,stable"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void testCacheStatsBudget() throws Exception {
+        budget.atMost(0, 0, () -> mockMvc.perform(get("/api/cache/stats"))
+                .andExpect(status().isOk()));
+    }
+}
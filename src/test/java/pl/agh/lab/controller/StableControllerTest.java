@@ -1,16 +1,37 @@
 package pl.agh.lab.controller;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
 import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.HorseRepository;
 import pl.agh.lab.repo.StableRepository;
+import pl.agh.lab.service.HerdColumns;
+import pl.agh.lab.service.HorseSearchIndex;
+import pl.agh.lab.service.StableChange;
+import pl.agh.lab.service.StableChangeFeed;
+import pl.agh.lab.service.StableService;
 
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,6 +46,24 @@ class StableControllerTest {
     @Autowired
     private StableRepository stableRepository;
 
+    @Autowired
+    private HorseRepository horseRepository;
+
+    @Autowired
+    private HorseSearchIndex searchIndex;
+
+    @Autowired
+    private StableChangeFeed changeFeed;
+
+    @Autowired
+    private HerdColumns herdColumns;
+
+    @Autowired
+    private StableService stableService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 
     @Test
     void testGetAllStables() throws Exception {
@@ -143,4 +182,439 @@ class StableControllerTest {
                         .content(horseJson))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetStablesByLoad() throws Exception {
+        Stable busy = new Stable("Busy Stable", 2);
+        busy.addHorse(new Horse("Bolt", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, "CHIP-1", null));
+        busy.addHorse(new Horse("Storm", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                6, 1200.0, 460.0, 162.0, "CHIP-2", null));
+        stableRepository.save(busy);
+        stableRepository.save(new Stable("Quiet Stable", 10));
+
+        mockMvc.perform(get("/api/stable/by-load").param("top", "1").param("minLoad", "0.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].stableName", is("Busy Stable")))
+                .andExpect(jsonPath("$[0].horseCount", is(2)))
+                .andExpect(jsonPath("$[0].loadRatio", is(1.0)));
+
+        mockMvc.perform(get("/api/stable/by-load").param("top", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetHorsesInStable_KeysetPages() throws Exception {
+        Stable stable = new Stable("Paged Stable", 10);
+        for (String name : new String[]{"Charlie", "Alpha", "Bravo"}) {
+            stable.addHorse(new Horse(name, "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                    5, 1000.0, 450.0, 160.0, null, null));
+        }
+        stable = stableRepository.save(stable);
+
+        String cursor = mockMvc.perform(get("/api/stable/" + stable.getId()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Alpha")))
+                .andExpect(jsonPath("$[1].name", is("Bravo")))
+                .andExpect(header().exists(StableController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(StableController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/stable/" + stable.getId()).param("limit", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Charlie")))
+                .andExpect(header().doesNotExist(StableController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/stable/" + stable.getId()).param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetStableCsv() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Csv Stable", 5));
+
+        MvcResult result = mockMvc.perform(get("/api/stable/" + stable.getId() + "/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("stable_" + stable.getId())))
+                .andExpect(content().string(startsWith("name,breed,type,status,age,price")));
+    }
+
+    @Test
+    void testGetStableCsv_NotFound() throws Exception {
+        mockMvc.perform(get("/api/stable/9999/csv"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAddRating_UpdatesAverage() throws Exception {
+        Stable stable = new Stable("Rated Stable", 5);
+        Horse horse = new Horse("Comet", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null);
+        stable.addHorse(horse);
+        stableRepository.saveAndFlush(stable);
+
+        mockMvc.perform(get("/api/horse/rating/" + horse.getId()))
+                .andExpect(status().isNotFound());
+
+        for (int value : new int[]{4, 5}) {
+            mockMvc.perform(post("/api/horse/rating")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(String.format("{\"horseId\": %d, \"value\": %d, \"description\": \"ok\"}",
+                                    horse.getId(), value)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/horse/rating/" + horse.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageRating", is(4.5)));
+
+        mockMvc.perform(post("/api/horse/rating/rebuild"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/horse/rating/" + horse.getId()))
+                .andExpect(jsonPath("$.averageRating", is(4.5)));
+    }
+
+    @Test
+    void testGetStableFill() throws Exception {
+        Stable stable = new Stable("Fill Stable", 4);
+        stable.addHorse(new Horse("Dusk", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null));
+        stable = stableRepository.save(stable);
+
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current", is(1)))
+                .andExpect(jsonPath("$.max", is(4)))
+                .andExpect(jsonPath("$.percentage", is(0.25)));
+
+        mockMvc.perform(get("/api/stable/9999/fill"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testHerdTotalsAndAggregateCheck() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Totals Stable", 5));
+        String json = String.format("""
+            {"stableId": %d, "name": "Comet", "breed": "Arab", "type": "GORACOKRWISTY", "status": "ZDROWY",
+             "age": 4, "price": 1500.0, "weightKg": 420.0, "heightCm": 155.0}
+        """, stable.getId());
+        mockMvc.perform(post("/api/horse").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill"))
+                .andExpect(jsonPath("$.current", is(1)));
+        mockMvc.perform(get("/api/stable/totals"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.horseCount", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.totalValue", greaterThanOrEqualTo(1500.0)));
+
+        Horse stray = new Horse("Stray", "Fjord", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY,
+                6, 700.0, 500.0, 150.0, null, null);
+        stray.setStable(stable);
+        horseRepository.saveAndFlush(stray);
+
+        String drift = "$.drift[?(@.stableId == " + stable.getId() + ")]";
+        mockMvc.perform(get("/api/stable/aggregates/check"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent", is(false)))
+                .andExpect(jsonPath(drift + ".storedLoad", contains(1)))
+                .andExpect(jsonPath(drift + ".actualLoad", contains(2)))
+                .andExpect(jsonPath(drift + ".actualValue", contains(2200.0)));
+
+        mockMvc.perform(post("/api/stable/load/reconcile"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/stable/aggregates/check"))
+                .andExpect(jsonPath(drift, hasSize(0)));
+    }
+
+    @Test
+    void testChangeHorseStatus() throws Exception {
+        Stable stable = new Stable("Status Stable", 2);
+        Horse horse = new Horse("Breeze", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null);
+        stable.addHorse(horse);
+        stableRepository.save(stable);
+
+        mockMvc.perform(put("/api/horse/" + horse.getId() + "/status")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"TRENING\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("TRENING")));
+
+        mockMvc.perform(put("/api/horse/" + horse.getId() + "/status")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"GALLOPING\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/horse/9999/status")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"CHORY\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testStreamChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        changeFeed.publish(StableChange.stableAdded(-42L, "Streamed", 3));
+
+        String body = "";
+        for (int i = 0; i < 100 && !body.contains("Streamed"); i++) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(body, containsString("event:STABLE_ADDED"));
+        assertThat(body, containsString("\"stableName\":\"Streamed\""));
+    }
+
+    @Test
+    void testImportHorses_Csv() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Import Stable", 2));
+
+        String csv = String.join("\n",
+                "stableId,name,breed,type,status,age,price,weightKg,heightCm,microchipId",
+                stable.getId() + ",Apollo,Arab,GORACOKRWISTY,ZDROWY,4,1000,450,160,CHIP-A",
+                stable.getId() + ",apollo,ARAB,GORACOKRWISTY,ZDROWY,4,1000,450,160,CHIP-B",
+                stable.getId() + ",Zeus,Fjord,UNKNOWN,ZDROWY,4,1000,450,160,",
+                stable.getId() + ",Hermes,Fjord,ZIMNOKRWISTY,ZDROWY,7,800,500,150,",
+                stable.getId() + ",Ares,Fjord,ZIMNOKRWISTY,ZDROWY,8,800,500,150,",
+                "9999,Ghost,Fjord,ZIMNOKRWISTY,ZDROWY,8,800,500,150,");
+
+        mockMvc.perform(post("/api/horse/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected[*].line", contains(3, 4, 6, 7)))
+                .andExpect(jsonPath("$.rejected[0].reason", is("Horse already exists")))
+                .andExpect(jsonPath("$.rejected[2].reason", is("Stable is full")))
+                .andExpect(jsonPath("$.rejected[3].reason", is("Stable not found")));
+    }
+
+    @Test
+    void testImportHorses_ReimportsCsvExport() throws Exception {
+        Stable source = new Stable("Export Source", 5);
+        source.addHorse(new Horse("Storm, \"the\" Grey", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1234.5678, 450.25, 160.125, "CHIP-1", new Date(1_700_000_000_000L)));
+        source.addHorse(new Horse("Two\nLines\r\nName", "Fjord", HorseType.ZIMNOKRWISTY, HorseCondition.CHORY,
+                7, 12_345_678.9, 500.0, 150.0, null, new Date(1_700_000_000_000L)));
+        source = stableRepository.saveAndFlush(source);
+        Stable target = stableRepository.saveAndFlush(new Stable("Import Target", 5));
+        entityManager.clear();
+
+        StringWriter csv = new StringWriter();
+        stableService.exportHorsesCsv(source.getId(), csv);
+
+        mockMvc.perform(post("/api/horse/import")
+                        .param("stableId", target.getId().toString())
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected", hasSize(0)));
+
+        List<String> exported = horseRepository.findByStable(source).stream()
+                .map(h -> h.getName() + "|" + h.getBreed() + "|" + h.getStatus() + "|" + h.getMicrochipId() + "|" + h.getAcquisitionDate().getTime()
+                        + "|" + h.getPrice() + "|" + h.getWeightKg() + "|" + h.getHeightCm())
+                .sorted().toList();
+        List<String> imported = horseRepository.findByStable(target).stream()
+                .map(h -> h.getName() + "|" + h.getBreed() + "|" + h.getStatus() + "|" + h.getMicrochipId() + "|" + h.getAcquisitionDate().getTime()
+                        + "|" + h.getPrice() + "|" + h.getWeightKg() + "|" + h.getHeightCm())
+                .sorted().toList();
+        assertThat(imported, is(exported));
+        assertThat(csv.toString(), containsString(",1234.5678,450.25,160.125,"));
+        assertThat(csv.toString(), containsString(",12345678.9,500.0,150.0,"));
+
+        mockMvc.perform(post("/api/horse/import")
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportHorses_Ndjson() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Ndjson Stable", 5));
+
+        String ndjson = String.format("""
+                {"stableId": %d, "name": "Luna", "breed": "Arab", "type": "GORACOKRWISTY", "status": "ZDROWY", "age": 3, "price": 900.0, "weightKg": 400.0, "heightCm": 150.0}
+                {"stableId": %d, "name": "Sol", "breed": "Arab"
+                """, stable.getId(), stable.getId());
+
+        mockMvc.perform(post("/api/horse/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejected[0].line", is(2)));
+    }
+
+    @Test
+    void testAddRatings_Batch() throws Exception {
+        Stable stable = new Stable("Show Stable", 5);
+        Horse horse = new Horse("Nova", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null);
+        stable.addHorse(horse);
+        stableRepository.saveAndFlush(stable);
+
+        mockMvc.perform(post("/api/horse/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("[{\"horseId\": %d, \"value\": 5}, {\"horseId\": %d, \"value\": 3}]",
+                                horse.getId(), horse.getId())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.sequences", hasSize(2)));
+
+        mockMvc.perform(post("/api/horse/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("[{\"horseId\": %d, \"value\": 9}]", horse.getId())))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/horse/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"horseId\": 999999, \"value\": 3}]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetCacheStats() throws Exception {
+        Stable stable = stableRepository.save(new Stable("Cached Stable", 3));
+
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/stable/" + stable.getId() + "/fill")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stableSummary.hits", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.stableSummary.misses", greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    void testSearchHorses() throws Exception {
+        Stable stable = new Stable("Search Stable", 5);
+        Horse match = new Horse("Thunderbolt", "Friesian", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY,
+                6, 3000.0, 650.0, 165.0, null, null);
+        Horse other = new Horse("Pebble", "Shetland", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY,
+                9, 500.0, 200.0, 100.0, null, null);
+        stable.addHorse(match);
+        stable.addHorse(other);
+        stable = stableRepository.saveAndFlush(stable);
+        searchIndex.add(match.getId(), stable.getId(), match.getName(), match.getBreed());
+        searchIndex.add(other.getId(), stable.getId(), other.getName(), other.getBreed());
+
+        try {
+            mockMvc.perform(get("/api/horse/search").param("q", "DERBOL"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].name", is("Thunderbolt")));
+
+            mockMvc.perform(get("/api/horse/search").param("q", "shet"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].name", is("Pebble")));
+        } finally {
+            searchIndex.remove(match.getId());
+            searchIndex.remove(other.getId());
+        }
+
+        mockMvc.perform(get("/api/horse/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchHorses_IndexAndFallbackReturnSameTopN() throws Exception {
+        Stable stable = new Stable("Search Order Stable", 5);
+        List<Horse> horses = new ArrayList<>();
+        for (String suffix : List.of("E", "D", "C", "B", "A")) {
+            Horse horse = new Horse("Qzxwing-" + suffix, "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                    5, 1000.0, 450.0, 160.0, null, null);
+            stable.addHorse(horse);
+            horses.add(horse);
+        }
+        stable = stableRepository.saveAndFlush(stable);
+        for (Horse horse : horses) {
+            searchIndex.add(horse.getId(), stable.getId(), horse.getName(), horse.getBreed());
+        }
+
+        try {
+            List<String> fallback = horseRepository.searchByFragment("qzxwing", Limit.of(2)).stream()
+                    .map(Horse::getName).toList();
+            assertThat(fallback, contains("Qzxwing-A", "Qzxwing-B"));
+
+            mockMvc.perform(get("/api/horse/search").param("q", "QZXWING").param("limit", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].name", is(fallback)));
+        } finally {
+            horses.forEach(h -> searchIndex.remove(h.getId()));
+        }
+    }
+
+    @Test
+    void testScopedSearchOnlyReturnsTheStable() throws Exception {
+        Stable first = new Stable("Scoped Search A", 5);
+        Stable second = new Stable("Scoped Search B", 5);
+        Horse inFirst = new Horse("Zyqvon", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null);
+        Horse inSecond = new Horse("Zyqvon", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1000.0, 450.0, 160.0, null, null);
+        first.addHorse(inFirst);
+        second.addHorse(inSecond);
+        first = stableRepository.saveAndFlush(first);
+        second = stableRepository.saveAndFlush(second);
+        searchIndex.add(inFirst.getId(), first.getId(), inFirst.getName(), inFirst.getBreed());
+        searchIndex.add(inSecond.getId(), second.getId(), inSecond.getName(), inSecond.getBreed());
+
+        try {
+            for (String fragment : List.of("zy", "zyqvon")) {
+                assertArrayEquals(new long[]{inFirst.getId()}, searchIndex.search(first.getId(), fragment, 10));
+                assertArrayEquals(new long[]{inSecond.getId()}, searchIndex.search(second.getId(), fragment, 10));
+                assertArrayEquals(new long[0], searchIndex.search(-1L, fragment, 10));
+            }
+            assertEquals(2, searchIndex.search(null, "zyqvon", 10).length);
+        } finally {
+            searchIndex.remove(inFirst.getId());
+            searchIndex.remove(inSecond.getId());
+        }
+    }
+
+    @Test
+    void testHerdAnalytics() throws Exception {
+        Stable stable = new Stable("Analytics Stable", 5);
+        Horse first = new Horse("Comet", "Analytics-Breed", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 2000.0, 450.0, 160.0, null, null);
+        Horse second = new Horse("Meteor", "Analytics-Breed", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                8, 4000.0, 550.0, 170.0, null, null);
+        stable.addHorse(first);
+        stable.addHorse(second);
+        stable = stableRepository.saveAndFlush(stable);
+        for (Horse h : List.of(first, second)) {
+            herdColumns.add(h.getId(), stable.getId(), h.getBreed(), h.getType(), h.getStatus(), h.getPrice(),
+                    h.getWeightKg(), h.getHeightCm(), h.getAge());
+        }
+
+        try {
+            mockMvc.perform(get("/api/analytics/herd").param("groupBy", "breed,type,status"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].horses", contains(2)))
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].type", contains("GORACOKRWISTY")))
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].price.avg", contains(3000.0)))
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].weightKg.min", contains(450.0)))
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].age.max", contains(8.0)))
+                    .andExpect(jsonPath("$[?(@.breed == 'Analytics-Breed')].stableId", empty()));
+
+            mockMvc.perform(get("/api/analytics/herd"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(1)))
+                    .andExpect(jsonPath("$[0].horses", greaterThanOrEqualTo(2)))
+                    .andExpect(jsonPath("$[0].breed").doesNotExist());
+
+            mockMvc.perform(get("/api/analytics/herd").param("groupBy", "colour"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            herdColumns.remove(first.getId());
+            herdColumns.remove(second.getId());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package pl.agh.lab.repo;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.agh.lab.Main;
+import pl.agh.lab.model.*;
+import pl.agh.lab.service.HorseImportResult;
+import pl.agh.lab.service.HorseImportRow;
+import pl.agh.lab.service.StableService;
+
+import java.sql.*;
+import java.util.*;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigrationTest {
+
+    private static final int STABLES = 50;
+    private static final int HORSES_PER_STABLE = 400;
+    private static final int RATINGS_PER_HORSE = 2;
+
+    private static final String[] LEGACY_SCHEMA = {
+            "create table horses (age integer not null, height_cm float(53) not null, price float(53) not null, " +
+                    "weight_kg float(53) not null, acquisition_date timestamp(6) not null, " +
+                    "id bigint generated by default as identity, stable_id bigint, breed varchar(255) not null, " +
+                    "microchip_id varchar(255), name varchar(255) not null, status varchar(255) not null " +
+                    "check (status in ('ZDROWY','CHORY','TRENING','KARENCJA','SPRZEDANY')), type varchar(255) not null " +
+                    "check (type in ('ZIMNOKRWISTY','GORACOKRWISTY')), primary key (id))",
+            "create table ratings (rating_value integer not null, horse_id bigint not null, " +
+                    "id bigint generated by default as identity, rating_date timestamp(6) not null, " +
+                    "description varchar(255) not null, primary key (id))",
+            "create table stables (max_capacity integer not null, id bigint generated by default as identity, " +
+                    "stable_name varchar(255) not null, primary key (id))",
+            "alter table if exists stables drop constraint if exists UK_jrspxk0nx5sp1pbk2ilh4gdv5",
+            "alter table if exists stables add constraint UK_jrspxk0nx5sp1pbk2ilh4gdv5 unique (stable_name)",
+            "alter table if exists horses add constraint FKpgs1w8qd8qplsrv0fyxcwg5it foreign key (stable_id) references stables",
+            "alter table if exists ratings add constraint FKcrtt3hgudmejf8s5y9n8pkkk foreign key (horse_id) references horses"
+    };
+
+    private String url;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        connection = DriverManager.getConnection(url, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testMigratesSeededBaselineToLatest() throws Exception {
+        flyway("1").migrate();
+        seed();
+
+        flyway(null).migrate();
+
+        for (MigrationInfo info : flyway(null).info().all()) {
+            assertTrue(info.getState().isApplied(), "Migration not applied: " + info.getScript());
+        }
+        assertEquals(STABLES, count("SELECT COUNT(*) FROM stables"));
+        assertEquals(STABLES * HORSES_PER_STABLE, count("SELECT COUNT(*) FROM horses"));
+        assertEquals(STABLES * HORSES_PER_STABLE * RATINGS_PER_HORSE, count("SELECT COUNT(*) FROM ratings"));
+
+        Set<String> indexes = indexes();
+        assertTrue(indexes.contains("IDX_HORSES_STABLE"));
+        assertTrue(indexes.contains("IDX_HORSES_STABLE_IDENTITY"));
+        assertTrue(indexes.contains("IDX_HORSES_STABLE_STATUS"));
+        assertTrue(indexes.contains("IDX_RATINGS_HORSE_DATE"));
+    }
+
+    @Test
+    void testUpgradesUnmanagedLegacySchema() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            for (String ddl : LEGACY_SCHEMA) st.execute(ddl);
+        }
+        seed();
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+        flyway.migrate();
+
+        assertEquals(MigrationState.BASELINE, flyway.info().applied()[0].getState());
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(0, count("SELECT COUNT(*) FROM horses WHERE rating_count <> " + RATINGS_PER_HORSE));
+        assertEquals(count("SELECT SUM(rating_value) FROM ratings"), count("SELECT SUM(rating_sum) FROM horses"));
+        assertEquals(0, count("SELECT COUNT(*) FROM stables WHERE current_load <> " + HORSES_PER_STABLE));
+        assertEquals(count("SELECT SUM(price) FROM horses"), count("SELECT SUM(total_value) FROM stables"));
+        assertEquals(2, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME IN ('HORSES_SEQ', 'RATINGS_SEQ')"));
+        assertTrue(indexes().contains("IDX_HORSES_STABLE_IDENTITY"));
+
+        long maxHorseId = count("SELECT MAX(id) FROM horses");
+        long maxRatingId = count("SELECT MAX(id) FROM ratings");
+        try (ConfigurableApplicationContext context = start()) {
+            StableService service = context.getBean(StableService.class);
+            Stable stable = service.addStable("Upgraded", 10);
+            Horse horse = service.addHorse(stable, "After-Upgrade", "Arab", HorseType.GORACOKRWISTY,
+                    HorseCondition.ZDROWY, 4, 1000.0, 450.0, 160.0, null, new Date());
+            HorseImportResult imported = service.importHorses(List.of(
+                    HorseImportRow.valid(1, stable.getId(), new Horse("Imported-1", "Fjord", HorseType.ZIMNOKRWISTY,
+                            HorseCondition.ZDROWY, 5, 900.0, 500.0, 150.0, null, null)),
+                    HorseImportRow.valid(2, stable.getId(), new Horse("Imported-2", "Fjord", HorseType.ZIMNOKRWISTY,
+                            HorseCondition.ZDROWY, 5, 900.0, 500.0, 150.0, null, null))));
+            service.addRatingToHorse(1L, 5, "after upgrade");
+
+            assertTrue(horse.getId() > maxHorseId, "Horse id " + horse.getId() + " collides with seeded ids");
+            assertEquals(2, imported.getAccepted());
+            assertEquals(maxRatingId + 1, count("SELECT COUNT(*) FROM ratings"));
+            assertTrue(count("SELECT MAX(id) FROM ratings") > maxRatingId);
+            assertEquals(STABLES * HORSES_PER_STABLE + 3, count("SELECT COUNT(*) FROM horses"));
+        }
+    }
+
+    @Test
+    void testHotQueriesUseIndexes() throws Exception {
+        flyway(null).migrate();
+        seed();
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE");
+        }
+
+        assertIndexCovers("IDX_HORSES_STABLE_IDENTITY_KEY", List.of("STABLE_ID", "NAME_KEY", "BREED_KEY", "AGE"),
+                "SELECT COUNT(h1_0.id) > 0 FROM horses h1_0 WHERE h1_0.stable_id = 1 " +
+                        "AND h1_0.name_key = LOWER('HORSE-1-1') AND h1_0.breed_key = LOWER('ARAB') AND h1_0.age = 5");
+        assertUsesIndex("IDX_HORSES_STABLE_IDENTITY",
+                "SELECT id FROM horses WHERE stable_id = 1 ORDER BY name, breed, age, id FETCH FIRST 50 ROWS ONLY");
+        assertUsesIndex("IDX_HORSES_STABLE_STATUS",
+                "SELECT COUNT(*) FROM horses WHERE stable_id = 1 AND status = 'CHORY'");
+        assertNoScan("SELECT COUNT(*), SUM(rating_value) FROM ratings WHERE horse_id = 1");
+    }
+
+    private Flyway flyway(String target) {
+        var config = Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration");
+        if (target != null) config.target(target);
+        return config.load();
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Main.class)
+                .headless(true)
+                .run("--spring.main.banner-mode=off",
+                        "--spring.datasource.url=" + url,
+                        "--spring.jpa.show-sql=false",
+                        "--stable.ui.enabled=false");
+    }
+
+    private void seed() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement stable = connection.prepareStatement(
+                     "INSERT INTO stables (stable_name, max_capacity) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement horse = connection.prepareStatement(
+                     "INSERT INTO horses (id, name, breed, type, status, age, price, weight_kg, height_cm, " +
+                             "acquisition_date, stable_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?)");
+             PreparedStatement rating = connection.prepareStatement(
+                     "INSERT INTO ratings (id, rating_value, rating_date, description, horse_id) " +
+                             "VALUES (?, ?, CURRENT_TIMESTAMP, 'seed', ?)")) {
+            String[] statuses = {"ZDROWY", "CHORY", "TRENING", "KARENCJA", "SPRZEDANY"};
+            long horseId = 0;
+            long ratingId = 0;
+            for (int s = 1; s <= STABLES; s++) {
+                stable.setString(1, "Stable-" + s);
+                stable.setInt(2, HORSES_PER_STABLE);
+                stable.executeUpdate();
+                long stableId;
+                try (ResultSet keys = stable.getGeneratedKeys()) {
+                    keys.next();
+                    stableId = keys.getLong(1);
+                }
+
+                for (int h = 1; h <= HORSES_PER_STABLE; h++) {
+                    horse.setLong(1, ++horseId);
+                    horse.setString(2, "Horse-" + s + "-" + h);
+                    horse.setString(3, h % 2 == 0 ? "Arab" : "Fjord");
+                    horse.setString(4, h % 2 == 0 ? "GORACOKRWISTY" : "ZIMNOKRWISTY");
+                    horse.setString(5, statuses[h % statuses.length]);
+                    horse.setInt(6, 3 + h % 15);
+                    horse.setDouble(7, 1000.0 + h);
+                    horse.setDouble(8, 450.0);
+                    horse.setDouble(9, 160.0);
+                    horse.setLong(10, stableId);
+                    horse.addBatch();
+
+                    for (int r = 0; r < RATINGS_PER_HORSE; r++) {
+                        rating.setLong(1, ++ratingId);
+                        rating.setInt(2, (h + r) % 6);
+                        rating.setLong(3, horseId);
+                        rating.addBatch();
+                    }
+                }
+                horse.executeBatch();
+                rating.executeBatch();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private Set<String> indexes() throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES")) {
+            while (rs.next()) names.add(rs.getString(1));
+        }
+        return names;
+    }
+
+    private void assertUsesIndex(String index, String sql) throws SQLException {
+        String plan = explain(sql);
+        assertTrue(plan.contains(index), "Expected " + index + " in plan: " + plan);
+    }
+
+    private void assertIndexCovers(String index, List<String> columns, String sql) throws SQLException {
+        String plan = explain(sql);
+        int start = plan.indexOf("PUBLIC." + index + ":");
+        assertTrue(start >= 0, "Expected " + index + " in plan: " + plan);
+        String condition = plan.substring(start, plan.indexOf("*/", start));
+        for (String column : columns) {
+            assertTrue(condition.contains(column + " ="), "Expected " + index + " to seek on " + column + ": " + plan);
+        }
+    }
+
+    private void assertNoScan(String sql) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tableScan"), "Expected an index lookup in plan: " + plan);
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            rs.next();
+            return rs.getString(1).replaceAll("\\s+", " ");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package pl.agh.lab.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.StableRepository;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class HerdAnalyticsServiceTest {
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private HerdAnalyticsService analytics;
+
+    @Autowired
+    private HerdColumns herdColumns;
+
+    @Autowired
+    private StableRepository stableRepository;
+
+    private Stable stable;
+    private final List<Horse> horses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        herdColumns.rebuild();
+        stable = service.addStable("Analytics-" + UUID.randomUUID(), 10);
+        for (int i = 0; i < 4; i++) {
+            horses.add(service.addHorse(stable, "Analytics-" + i, "Arab", HorseType.GORACOKRWISTY,
+                    HorseCondition.ZDROWY, 4 + i, 1000.0 * (i + 1), 400.0 + i * 10, 150.0 + i, null, new Date()));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        if (service.stableExists(stable.getId())) service.removeStable(stable.getId());
+    }
+
+    @Test
+    void testStableStatsFollowCommittedWrites() throws Exception {
+        HerdStats stats = analytics.getStableStats(stable.getId()).orElseThrow();
+        assertEquals(4, stats.horses());
+        assertEquals(10000.0, stats.price().sum(), 0.001);
+        assertEquals(1000.0, stats.price().min());
+        assertEquals(4000.0, stats.price().max());
+        assertEquals(2500.0, stats.price().avg(), 0.001);
+        assertEquals(415.0, stats.weightKg().avg(), 0.001);
+        assertEquals(4.0, stats.age().min());
+        assertEquals(7.0, stats.age().max());
+
+        service.removeHorse(horses.get(3).getId());
+        service.importHorses(List.of(HorseImportRow.valid(1, stable.getId(), new Horse("Imported", "Fjord",
+                HorseType.ZIMNOKRWISTY, HorseCondition.CHORY, 9, 500.0, 600.0, 140.0, null, null))));
+
+        stats = analytics.getStableStats(stable.getId()).orElseThrow();
+        assertEquals(4, stats.horses());
+        assertEquals(6500.0, stats.price().sum(), 0.001);
+        assertEquals(500.0, stats.price().min());
+        assertEquals(600.0, stats.weightKg().max());
+        assertEquals(140.0, stats.heightCm().min());
+
+        service.removeStable(stable.getId());
+        assertTrue(analytics.getStableStats(stable.getId()).isEmpty());
+    }
+
+    @Test
+    void testHerdStatsMatchStoredTotals() {
+        HerdTotals totals = stableRepository.findHerdTotals();
+        HerdStats stats = analytics.getHerdStats();
+
+        assertTrue(analytics.isReady());
+        assertEquals(totals.getHorseCount(), stats.horses());
+        assertEquals(totals.getTotalValue(), stats.price().sum(), 0.01);
+        assertEquals(totals.getTotalWeight(), stats.weightKg().sum(), 0.01);
+        assertEquals(totals.getTotalValue(), analytics.getTotalHerdValue(), 0.01);
+    }
+
+    @Test
+    void testGroupByFollowsStatusChanges() throws Exception {
+        service.changeHorseStatus(horses.get(0).getId(), HorseCondition.CHORY);
+
+        List<HerdGroup> groups = analytics.getHerdGroups(EnumSet.of(HerdDimension.STABLE, HerdDimension.STATUS)).stream()
+                .filter(g -> stable.getId().equals(g.stableId()))
+                .toList();
+        assertEquals(2, groups.size());
+        assertEquals(HorseCondition.ZDROWY, groups.get(0).status());
+        assertEquals(3, groups.get(0).horses());
+        assertEquals(9000.0, groups.get(0).price().sum(), 0.001);
+        assertEquals(HorseCondition.CHORY, groups.get(1).status());
+        assertEquals(1000.0, groups.get(1).price().max());
+        assertNull(groups.get(1).breed());
+        assertNull(groups.get(1).type());
+
+        assertThrows(ValidationException.class, () -> HerdDimension.parse("breed,colour"));
+    }
+
+    @Test
+    void testParallelGroupingMatchesSequentialScan() throws Exception {
+        HerdColumns columns = new HerdColumns(null);
+        Random random = new Random(11);
+        String[] breeds = {"Arab", "Fjord", "Haflinger", "Konik"};
+        Map<String, double[]> expected = new HashMap<>();
+        for (long id = 1; id <= 200_000; id++) {
+            String breed = breeds[random.nextInt(breeds.length)];
+            HorseCondition status = HorseCondition.values()[random.nextInt(HorseCondition.values().length)];
+            double price = 100 + random.nextInt(10_000);
+            int age = 1 + random.nextInt(30);
+            columns.add(id, id % 7, breed, HorseType.ZIMNOKRWISTY, status, price, 400, 150, age);
+            if (id % 3 == 1) continue;
+            double[] e = expected.computeIfAbsent(breed + "/" + status, k -> new double[]{0, 0, Double.MAX_VALUE, 0});
+            e[0]++;
+            e[1] += price;
+            e[2] = Math.min(e[2], price);
+            e[3] = Math.max(e[3], age);
+        }
+        for (long id = 1; id <= 200_000; id += 3) {
+            columns.remove(id);
+        }
+
+        HerdAnalyticsService parallel = new HerdAnalyticsService(columns, 4);
+        try {
+            List<HerdGroup> groups = parallel.getHerdGroups(EnumSet.of(HerdDimension.BREED, HerdDimension.STATUS));
+            assertEquals(expected.size(), groups.size());
+            for (HerdGroup g : groups) {
+                double[] e = expected.get(g.breed() + "/" + g.status());
+                assertEquals((long) e[0], g.horses());
+                assertEquals(e[1], g.price().sum(), 0.001);
+                assertEquals(e[2], g.price().min());
+                assertEquals(e[3], g.age().max());
+            }
+            assertEquals(groups.stream().mapToLong(HerdGroup::horses).sum(), parallel.getHerdStats().horses());
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void testHighCardinalityGroupingCountsEveryHorse() throws Exception {
+        HerdColumns columns = new HerdColumns(null);
+        Map<String, Long> expected = new HashMap<>();
+        for (long id = 1; id <= 60_000; id++) {
+            long stableId = id % 3_000;
+            String breed = "Breed-" + id % 20;
+            HorseCondition status = HorseCondition.values()[(int) (id % HorseCondition.values().length)];
+            columns.add(id, stableId, breed, HorseType.ZIMNOKRWISTY, status, 100, 400, 150, 5);
+            expected.merge(stableId + "/" + breed + "/" + status, 1L, Long::sum);
+        }
+
+        HerdAnalyticsService parallel = new HerdAnalyticsService(columns, 4);
+        try {
+            List<HerdGroup> groups = parallel.getHerdGroups(EnumSet.allOf(HerdDimension.class));
+            assertEquals(expected.size(), groups.size());
+            for (HerdGroup g : groups) {
+                assertEquals(expected.get(g.stableId() + "/" + g.breed() + "/" + g.status()), g.horses());
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void testReadsScanSnapshotWithoutBlockingWriters() throws Exception {
+        HerdColumns columns = new HerdColumns(null);
+        for (long id = 1; id <= 100; id++) {
+            columns.add(id, 1L, "Arab", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY, 100, 400, 150, 5);
+        }
+
+        int[] seen = columns.read(snapshot -> {
+            Thread writer = new Thread(() -> {
+                columns.remove(1L);
+                columns.changeStatus(2L, HorseCondition.CHORY);
+                columns.add(101L, 2L, "Fjord", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY, 100, 400, 150, 5);
+            });
+            writer.start();
+            try {
+                writer.join(5_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertFalse(writer.isAlive());
+            return new int[]{snapshot.slots(), healthy(snapshot), snapshot.breedCount()};
+        });
+
+        assertArrayEquals(new int[]{100, 100, 1}, seen);
+        assertEquals(100, columns.read(HerdColumns.Columns::liveCount));
+        assertEquals(2, columns.read(HerdColumns.Columns::breedCount));
+        assertEquals(99, columns.read(HerdAnalyticsServiceTest::healthy));
+    }
+
+    private static int healthy(HerdColumns.Columns columns) {
+        int live = 0;
+        for (int slot = 0; slot < columns.slots(); slot++) {
+            if (columns.isLive(slot) && columns.statusCode(slot) == HorseCondition.ZDROWY.ordinal()) live++;
+        }
+        return live;
+    }
+}
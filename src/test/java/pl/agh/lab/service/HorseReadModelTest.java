@@ -0,0 +1,222 @@
+package pl.agh.lab.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.HorseRepository;
+import pl.agh.lab.repo.StableRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "stable.read-model.enabled=true")
+class HorseReadModelTest {
+
+    private static final int HORSES = 30;
+    private static final String[] BREEDS = {"Arab", "Fjord", "Haflinger"};
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private HorseReadModel readModel;
+
+    @Autowired
+    private HorseRepository horseRepository;
+
+    @Autowired
+    private StableRepository stableRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private Stable stable;
+    private final List<Horse> horses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        readModel.load();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        stable = service.addStable("ReadModel-" + UUID.randomUUID(), HORSES * 2);
+        HorseCondition[] statuses = HorseCondition.values();
+        for (int i = 0; i < HORSES; i++) {
+            horses.add(service.addHorse(stable, "Model-" + (HORSES - i), BREEDS[i % BREEDS.length],
+                    HorseType.GORACOKRWISTY, statuses[i % statuses.length], 3 + i % 7, 1000.0 + i, 450.0, 160.0,
+                    null, new Date()));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        deleteRatings();
+        if (service.stableExists(stable.getId())) service.removeStable(stable.getId());
+    }
+
+    @Test
+    void testReadsMatchRepository() throws Exception {
+        assertMatchesRepository();
+        List<Long> byLoad = stableRepository.findSummariesByLoad().stream().map(StableSummary::getId).toList();
+        assertEquals(byLoad, service.getStableSummariesByLoad().stream().map(StableSummary::getId).toList());
+        assertEquals(byLoad, service.sortStablesByCurrentLoad().stream().map(Stable::getId).toList());
+        assertEquals(stableRepository.findSummaries().stream().map(StableSummary::getId).toList(),
+                service.getStableSummaries().stream().map(StableSummary::getId).toList());
+    }
+
+    @Test
+    void testReadsIssueNoStatements() throws Exception {
+        statistics.clear();
+        service.getHorses(stable.getId());
+        service.getHorses(stable);
+        service.filterHorses(stable.getId(), "model-1", null);
+        service.filterHorses(stable, null, HorseCondition.ZDROWY);
+        service.getStableSummary(stable.getId());
+        service.getStableSummaries();
+        service.getStableSummariesByLoad();
+        service.sortStablesByCurrentLoad();
+        HorsePage first = service.getHorses(stable.getId(), null, 10);
+        service.getHorses(stable.getId(), first.getNextCursor(), 10);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertThrows(StableOperationException.class, () -> service.getHorses(-1L));
+        assertThrows(StableOperationException.class, () -> service.getHorses(-1L, null, 10));
+    }
+
+    @Test
+    void testReturnedHorsesAreCopies() throws Exception {
+        for (Horse horse : service.getHorses(stable.getId())) {
+            horse.setStatus(HorseCondition.SPRZEDANY);
+            horse.changeWeight(10);
+        }
+        service.filterHorses(stable, null, null).forEach(h -> h.setStatus(HorseCondition.SPRZEDANY));
+        service.getHorses(stable.getId(), null, HORSES).getHorses().forEach(h -> h.setStatus(HorseCondition.SPRZEDANY));
+
+        assertMatchesRepository();
+        assertTrue(service.getHorses(stable.getId()).stream().allMatch(h -> h.getWeightKg() == 450.0));
+        Stable sorted = service.sortStablesByCurrentLoad().stream()
+                .filter(s -> s.getId().equals(stable.getId())).findFirst().orElseThrow();
+        assertEquals(HORSES, sorted.getCurrentLoad());
+        assertEquals(stable.getStableName(), sorted.getStableName());
+    }
+
+    @Test
+    void testMutationsAreVisibleAfterCommit() throws Exception {
+        Horse extra = service.addHorse(stable, "Extra", "Arab", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY,
+                4, 500.0, 400.0, 150.0, null, new Date());
+        service.changeHorseStatus(horses.get(0).getId(), HorseCondition.CHORY);
+        service.addRatingToHorse(horses.get(1).getId(), 5, "model");
+        service.addRatingsBatch(List.of(
+                new PendingRating(1, horses.get(1).getId(), 3, "model", new Date()),
+                new PendingRating(2, horses.get(2).getId(), 4, "model", new Date())));
+        service.removeHorse(horses.get(3).getId());
+        service.importHorses(List.of(HorseImportRow.valid(1, stable.getId(), new Horse("Imported", "Fjord",
+                HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY, 5, 900.0, 500.0, 150.0, null, null))));
+
+        assertMatchesRepository();
+        Horse rated = service.getHorses(stable.getId()).stream()
+                .filter(h -> h.getId().equals(horses.get(1).getId())).findFirst().orElseThrow();
+        assertEquals(2, rated.getRatingCount());
+        assertEquals(4.0, rated.getAverageRating());
+        assertTrue(service.filterHorses(stable, "extra", null).stream().anyMatch(h -> h.getId().equals(extra.getId())));
+        assertEquals(HORSES + 1, service.getStableSummary(stable.getId()).orElseThrow().getCurrentLoad());
+
+        service.rebuildRatingAggregates();
+        assertMatchesRepository();
+
+        deleteRatings();
+        service.removeStable(stable.getId());
+        assertTrue(service.getStableSummary(stable.getId()).isEmpty());
+        assertThrows(StableOperationException.class, () -> service.getHorses(stable.getId()));
+    }
+
+    @Test
+    void testRatingEventsOverlappingReloadAreAppliedOnce() throws Exception {
+        Long horseId = horses.get(0).getId();
+        service.addRatingToHorse(horseId, 5, "model");
+        service.addRatingsBatch(List.of(new PendingRating(1, horseId, 3, "model", new Date())));
+        readModel.load();
+        readModel.ratingTotalsChanged(stable.getId(), horseId, 1, 5);
+        readModel.ratingTotalsChanged(stable.getId(), horseId, 2, 8);
+        assertMatchesRepository();
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 200; i++) {
+                    Horse horse = horses.get(i % 5);
+                    service.addRatingsBatch(List.of(new PendingRating(i, horse.getId(), i % 6, "overlap", new Date())));
+                }
+            } catch (Exception e) {
+                failure.set(e);
+            } finally {
+                done.set(true);
+            }
+        });
+        writer.start();
+        while (!done.get()) {
+            readModel.reload();
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertMatchesRepository();
+    }
+
+    private void deleteRatings() {
+        jdbcTemplate.update("DELETE FROM ratings WHERE horse_id IN (SELECT id FROM horses WHERE stable_id = ?)",
+                stable.getId());
+    }
+
+    private void assertMatchesRepository() throws Exception {
+        assertEquals(snapshot(horseRepository.filter(stable, null, null)), snapshot(service.getHorses(stable.getId())));
+        for (HorseCondition status : HorseCondition.values()) {
+            assertEquals(snapshot(horseRepository.filter(stable, null, status)),
+                    snapshot(service.filterHorses(stable, null, status)));
+        }
+        assertEquals(snapshot(horseRepository.filter(stable, "arab", null)),
+                snapshot(service.filterHorses(stable.getId(), "ARAB ", null)));
+        assertEquals(snapshot(horseRepository.filter(stable, "model-2", HorseCondition.ZDROWY)),
+                snapshot(service.filterHorses(stable, "Model-2", HorseCondition.ZDROWY)));
+
+        List<Horse> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            HorsePage page = service.getHorses(stable.getId(), cursor, 7);
+            paged.addAll(page.getHorses());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(snapshot(horseRepository.filterPage(stable, null, null, Limit.unlimited())), snapshot(paged));
+
+        StableSummary expected = stableRepository.findSummaryById(stable.getId()).orElseThrow();
+        StableSummary actual = service.getStableSummary(stable.getId()).orElseThrow();
+        assertEquals(expected.getCurrentLoad(), actual.getCurrentLoad());
+        assertEquals(expected.getTotalValue(), actual.getTotalValue(), 0.001);
+        assertEquals(expected.getMaxCapacity(), actual.getMaxCapacity());
+    }
+
+    private static List<String> snapshot(List<Horse> horses) {
+        return horses.stream()
+                .map(h -> h.getId() + ":" + h.getStatus() + ":" + h.getRatingCount() + ":" + h.getRatingSum())
+                .toList();
+    }
+}
@@ -0,0 +1,92 @@
+package pl.agh.lab.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RatingIngestionQueueTest {
+
+    private static final long POISON_HORSE = 13L;
+
+    private StableService service;
+    private RatingIngestionQueue queue;
+    private final List<PendingRating> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = mock(StableService.class);
+        when(service.findExistingHorseIds(anySet())).thenAnswer(inv -> inv.getArgument(0));
+        queue = new RatingIngestionQueue(service, 100, 10, 3);
+    }
+
+    @Test
+    void testTransientFailureIsRetriedOnNextFlush() throws Exception {
+        when(service.addRatingsBatch(anyList()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenAnswer(inv -> save(inv.getArgument(0)));
+        submit(1L, 2L, 3L);
+
+        queue.flush();
+        assertEquals(0, queue.getWritten());
+        assertEquals(3, queue.getRetrying());
+
+        queue.flush();
+        assertEquals(3, queue.getWritten());
+        assertEquals(3, queue.getRetried());
+        assertEquals(0, queue.getDropped());
+        assertEquals(0, queue.getPending());
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(PendingRating::horseId).toList());
+    }
+
+    @Test
+    void testPoisonRowIsDroppedAndRestOfBatchWritten() throws Exception {
+        when(service.addRatingsBatch(anyList())).thenAnswer(inv -> {
+            List<PendingRating> batch = inv.getArgument(0);
+            if (batch.stream().anyMatch(r -> r.horseId() == POISON_HORSE)) {
+                throw new DataIntegrityViolationException("bad rating");
+            }
+            return save(batch);
+        });
+        submit(1L, POISON_HORSE, 2L, 3L);
+
+        queue.flush();
+        assertEquals(3, queue.getWritten());
+        assertEquals(1, queue.getDropped());
+        assertEquals(0, queue.getPending());
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(PendingRating::horseId).toList());
+    }
+
+    @Test
+    void testPersistentTransientFailureGivesUpAfterMaxAttempts() throws Exception {
+        when(service.addRatingsBatch(anyList())).thenThrow(new CannotAcquireLockException("lock timeout"));
+        submit(1L, 2L);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, queue.getDropped());
+            queue.flush();
+        }
+        assertEquals(2, queue.getDropped());
+        assertEquals(0, queue.getWritten());
+        assertEquals(0, queue.getPending());
+        verify(service, times(3)).addRatingsBatch(anyList());
+    }
+
+    private void submit(Long... horseIds) throws Exception {
+        List<RatingIngestionQueue.RatingRequest> requests = Arrays.stream(horseIds)
+                .map(id -> new RatingIngestionQueue.RatingRequest(id, 4, "queued"))
+                .toList();
+        queue.submitAll(requests);
+    }
+
+    private int save(List<PendingRating> batch) {
+        saved.addAll(batch);
+        return batch.size();
+    }
+}
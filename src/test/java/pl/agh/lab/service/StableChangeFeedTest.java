@@ -0,0 +1,150 @@
+package pl.agh.lab.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StableChangeFeedTest {
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private StableChangeFeed feed;
+
+    private final List<StableChangeFeed.Subscription> subscriptions = new ArrayList<>();
+    private final List<Long> createdStables = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        subscriptions.forEach(StableChangeFeed.Subscription::cancel);
+        for (Long id : createdStables) {
+            if (service.stableExists(id)) service.removeStable(id);
+        }
+    }
+
+    @Test
+    void testMutationsPublishTypedChangesAfterCommit() throws Exception {
+        BlockingQueue<StableChange> received = subscribe(new LinkedBlockingQueue<>());
+
+        Stable stable = service.addStable("Feed-" + UUID.randomUUID(), 1);
+        createdStables.add(stable.getId());
+        Horse horse = service.addHorse(stable, "Feed Horse", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                5, 1200.0, 450.0, 160.0, null, new Date());
+        assertThrows(StableOperationException.class, () -> service.addHorse(stable, "Overflow", "Arab",
+                HorseType.GORACOKRWISTY, HorseCondition.ZDROWY, 5, 1200.0, 450.0, 160.0, null, new Date()));
+        service.changeHorseStatus(horse.getId(), HorseCondition.CHORY);
+        service.changeHorseStatus(horse.getId(), HorseCondition.CHORY);
+        service.removeHorse(horse.getId());
+        service.removeStable(stable.getId());
+
+        StableChange added = next(received, stable.getId());
+        assertEquals(StableChange.Type.STABLE_ADDED, added.type());
+        assertEquals(1, added.maxCapacity());
+
+        StableChange horseAdded = next(received, stable.getId());
+        assertEquals(StableChange.Type.HORSE_ADDED, horseAdded.type());
+        assertEquals(horse.getId(), horseAdded.horseId());
+        assertEquals(1L, horseAdded.horseDelta());
+        assertEquals(1200.0, horseAdded.valueDelta());
+
+        StableChange statusChanged = next(received, stable.getId());
+        assertEquals(StableChange.Type.HORSE_STATUS_CHANGED, statusChanged.type());
+        assertEquals(HorseCondition.CHORY, statusChanged.status());
+
+        StableChange removed = next(received, stable.getId());
+        assertEquals(StableChange.Type.HORSE_REMOVED, removed.type());
+        assertEquals(-1L, removed.horseDelta());
+        assertEquals(-1200.0, removed.valueDelta());
+
+        assertEquals(StableChange.Type.STABLE_REMOVED, next(received, stable.getId()).type());
+        assertTrue(horseAdded.sequence() > added.sequence());
+        assertTrue(removed.sequence() > statusChanged.sequence());
+    }
+
+    @Test
+    void testSlowSubscriberOverflowsIntoResync() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<StableChange> received = new LinkedBlockingQueue<>();
+        subscriptions.add(feed.subscribe(change -> {
+            release.await(10, TimeUnit.SECONDS);
+            received.add(change);
+        }, 4));
+        long overflowsBefore = feed.overflowCount();
+
+        for (int i = 0; i < 50; i++) {
+            feed.publish(StableChange.stableRemoved(-1L - i));
+        }
+        release.countDown();
+
+        List<StableChange> delivered = new ArrayList<>();
+        StableChange change;
+        while ((change = received.poll(2, TimeUnit.SECONDS)) != null) {
+            delivered.add(change);
+            if (change.type() == StableChange.Type.RESYNC && received.isEmpty()) break;
+        }
+
+        assertTrue(feed.overflowCount() > overflowsBefore);
+        assertTrue(delivered.size() <= 6, "Delivered " + delivered.size());
+        assertTrue(delivered.stream().anyMatch(c -> c.type() == StableChange.Type.RESYNC));
+    }
+
+    @Test
+    void testFailingSinkIsUnsubscribed() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        StableChangeFeed.Subscription subscription = feed.subscribe(change -> {
+            failed.countDown();
+            throw new IllegalStateException("gone");
+        });
+        subscriptions.add(subscription);
+
+        feed.publish(StableChange.stableRemoved(-1L));
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && !subscription.isCancelled(); i++) Thread.sleep(20);
+        assertTrue(subscription.isCancelled());
+    }
+
+    @Test
+    void testVirtualThreadDispatchRequiresJava21() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(IllegalStateException.class, () -> new StableChangeFeed(16, true));
+            return;
+        }
+        StableChangeFeed virtual = new StableChangeFeed(16, true);
+        try {
+            BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+            virtual.subscribe(change -> threads.add(Thread.currentThread().toString()));
+            virtual.publish(StableChange.resync(0));
+            String thread = threads.poll(5, TimeUnit.SECONDS);
+            assertNotNull(thread);
+            assertTrue(thread.startsWith("VirtualThread"), thread);
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    private BlockingQueue<StableChange> subscribe(BlockingQueue<StableChange> queue) {
+        subscriptions.add(feed.subscribe(queue::add));
+        return queue;
+    }
+
+    private static StableChange next(BlockingQueue<StableChange> queue, Long stableId) throws InterruptedException {
+        while (true) {
+            StableChange change = queue.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change, "Timed out waiting for a change to stable " + stableId);
+            if (stableId.equals(change.stableId())) return change;
+        }
+    }
+}
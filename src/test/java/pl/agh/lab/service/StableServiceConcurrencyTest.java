@@ -0,0 +1,138 @@
+package pl.agh.lab.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.HorseRepository;
+import pl.agh.lab.repo.StableRepository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StableServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private StableRepository stableRepository;
+
+    @Autowired
+    private HorseRepository horseRepository;
+
+    private final List<Long> createdStables = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (Long id : createdStables) {
+            service.removeStable(id);
+        }
+    }
+
+    @Test
+    void testConcurrentAddHorseNeverExceedsCapacity() throws Exception {
+        Stable stable = createStable(10);
+
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        runConcurrently(100, i -> {
+            try {
+                service.addHorse(stable, "Horse-" + i, "Arabian", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                        5, 1000.0, 450.0, 160.0, null, new Date());
+                added.incrementAndGet();
+            } catch (StableOperationException e) {
+                full.incrementAndGet();
+            }
+        });
+
+        assertEquals(10, added.get());
+        assertEquals(90, full.get());
+        assertEquals(10, horseRepository.countByStable(stable));
+        Stable reloaded = stableRepository.findById(stable.getId()).orElseThrow();
+        assertEquals(10, reloaded.getCurrentLoad());
+        assertEquals(10_000.0, reloaded.totalValue());
+        assertEquals(4_500.0, reloaded.getTotalWeight());
+        assertTrue(service.checkStableAggregates().stream().noneMatch(d -> d.getStableId().equals(stable.getId())));
+    }
+
+    @Test
+    void testConcurrentAddHorseToDifferentStables() throws Exception {
+        List<Stable> stables = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            stables.add(createStable(20));
+        }
+
+        runConcurrently(THREADS * 20, i -> {
+            Stable stable = stables.get(i % THREADS);
+            service.addHorse(stable, "Horse-" + i, "Friesian", HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY,
+                    7, 2000.0, 600.0, 165.0, null, new Date());
+        });
+
+        for (Stable stable : stables) {
+            assertEquals(20, horseRepository.countByStable(stable));
+            assertEquals(20, stableRepository.findById(stable.getId()).orElseThrow().getCurrentLoad());
+        }
+    }
+
+    @Test
+    void testRemoveHorseReleasesCapacity() throws Exception {
+        Stable stable = createStable(1);
+        Long horseId = service.addHorse(stable, "Single", "Arabian", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 800.0, 400.0, 150.0, null, new Date()).getId();
+
+        assertThrows(StableOperationException.class, () -> service.addHorse(stable, "Second", "Arabian",
+                HorseType.GORACOKRWISTY, HorseCondition.ZDROWY, 4, 800.0, 400.0, 150.0, null, new Date()));
+
+        service.removeHorse(horseId);
+        service.addHorse(stable, "Second", "Arabian", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 800.0, 400.0, 150.0, null, new Date());
+
+        Stable reloaded = stableRepository.findById(stable.getId()).orElseThrow();
+        assertEquals(1, reloaded.getCurrentLoad());
+        assertEquals(800.0, reloaded.totalValue());
+        assertEquals(400.0, reloaded.getTotalWeight());
+    }
+
+    private Stable createStable(int capacity) throws Exception {
+        Stable stable = service.addStable("Concurrent-" + UUID.randomUUID(), capacity);
+        createdStables.add(stable.getId());
+        return stable;
+    }
+
+    private void runConcurrently(int tasks, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(n);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int i) throws Exception;
+    }
+}
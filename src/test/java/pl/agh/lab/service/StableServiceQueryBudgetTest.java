@@ -0,0 +1,196 @@
+package pl.agh.lab.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pl.agh.lab.QueryBudget;
+import pl.agh.lab.model.Horse;
+import pl.agh.lab.model.HorseCondition;
+import pl.agh.lab.model.HorseType;
+import pl.agh.lab.model.Stable;
+import pl.agh.lab.repo.StableRepository;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class StableServiceQueryBudgetTest {
+
+    private static final int HORSES = 20;
+
+    @Autowired
+    private StableService service;
+
+    @Autowired
+    private StableRepository stableRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private QueryBudget budget;
+    private Stable stable;
+    private final List<Horse> horses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        budget = new QueryBudget(entityManager);
+        stable = service.addStable("Budget Stable", HORSES * 2);
+        for (int i = 0; i < HORSES; i++) {
+            horses.add(service.addHorse(stable, "Budget-" + i, "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                    3 + i % 10, 1000.0 + i, 450.0, 160.0, null, new Date()));
+        }
+        for (Horse horse : horses) {
+            service.addRatingToHorse(horse.getId(), 4, "budget");
+        }
+    }
+
+    private int stableCount() {
+        return (int) stableRepository.count();
+    }
+
+    @Test
+    void testStableReadBudgets() throws Exception {
+        int stables = stableCount();
+        budget.atMost(0, 0, service::getCacheStats);
+        budget.atMost(1, stables, service::getAllStables);
+        budget.atMost(1, 0, service::getStableSummaries);
+        budget.atMost(1, 0, service::getStableSummariesByLoad);
+        budget.atMost(1, 0, () -> service.getStableSummary(stable.getId()));
+        budget.atMost(1, 1, () -> service.getStable(stable.getId()));
+        budget.atMost(1, 0, () -> service.stableExists(stable.getId()));
+        budget.atMost(2, stables, service::sortStablesByCurrentLoad);
+        budget.atMost(1, 0, () -> service.getStableLoadRanking(10, null, null));
+        budget.atMost(1, 0, service::getHerdTotals);
+        budget.atMost(1, 0, service::getTotalHerdValue);
+        budget.atMost(1, 0, service::checkStableAggregates);
+    }
+
+    @Test
+    void testHorseReadBudgets() throws Exception {
+        budget.atMost(1, 1, () -> service.getHorse(horses.get(0).getId()));
+        budget.atMost(2, HORSES + 1, () -> service.getHorses(stable.getId()));
+        budget.atMost(2, 12, () -> service.getHorses(stable.getId(), null, 10));
+        budget.atMost(1, HORSES, () -> service.getHorses(stable));
+        budget.atMost(1, HORSES, () -> service.exportHorsesCsv(stable.getId(), new StringWriter()));
+        budget.atMost(1, HORSES, () -> service.filterHorses(stable, null, HorseCondition.ZDROWY));
+        budget.atMost(1, HORSES, () -> service.filterHorses(stable.getId(), "budget", null));
+        budget.atMost(1, 11, () -> service.filterHorses(stable, "budget", null, null, 10));
+        budget.atMost(1, 10, () -> service.searchHorses("budget", 10));
+        budget.atMost(1, 0, () -> service.findExistingHorseIds(horses.stream().map(Horse::getId).toList()));
+    }
+
+    @Test
+    void testHorseWindowBudgets() throws Exception {
+        HorseQuery byPriceDesc = new HorseQuery(stable.getId(), null, null, HorseSortKey.PRICE, false);
+        long count = budget.atMost(1, 0, () -> service.countHorses(byPriceDesc));
+        List<Horse> second = budget.atMost(1, 5, () -> service.getHorseWindow(byPriceDesc, 5, 5));
+
+        assertEquals(HORSES, count);
+        assertEquals(5, second.size());
+        assertEquals(1000.0 + HORSES - 6, second.get(0).getPrice());
+        assertEquals(1000.0 + HORSES - 10, second.get(4).getPrice());
+        assertThrows(ValidationException.class, () -> service.getHorseWindow(byPriceDesc, 3, 5));
+    }
+
+    @Test
+    void testRatingReadBudgets() throws Exception {
+        budget.atMost(1, 0, () -> service.getHorseRatingStatsForStable(stable));
+        List<HorseRatingStat> stats = budget.atMost(1, 0, () -> service.getHorseRatingStatsForStable(stable.getId()));
+
+        assertEquals(horses.stream().map(Horse::getId).toList(), stats.stream().map(HorseRatingStat::getHorseId).toList());
+        assertEquals(4.0, stats.get(0).getAverage());
+        budget.atMost(1, 0, () -> service.getAverageRatingForHorse(horses.get(0).getId()));
+    }
+
+    @Test
+    void testAggregateRepairBudgets() throws Exception {
+        budget.atMost(1, 0, service::rebuildRatingAggregates);
+        budget.atMost(1, 0, service::reconcileStableLoads);
+    }
+
+    @Test
+    void testAddStableBudget() throws Exception {
+        budget.atMost(3, 0, () -> service.addStable("Budget New", 5));
+    }
+
+    @Test
+    void testRemoveStableBudget() throws Exception {
+        Stable empty = service.addStable("Budget Empty", 5);
+        budget.atMost(5, 1, () -> service.removeStable(empty.getId()));
+
+        Stable other = service.addStable("Budget Empty 2", 5);
+        budget.atMost(5, 1, () -> service.removeStable(other));
+    }
+
+    @Test
+    void testRemovePopulatedStableBudget() throws Exception {
+        budget.atMost(5, 0, () -> service.removeStable(stable.getId()));
+
+        assertFalse(service.stableExists(stable.getId()));
+        assertTrue(horses.stream().allMatch(h -> service.getHorse(h.getId()).isEmpty()));
+        assertEquals(0L, entityManager.createQuery("SELECT COUNT(r) FROM Rating r WHERE r.horse.id IN :ids", Long.class)
+                .setParameter("ids", horses.stream().map(Horse::getId).toList())
+                .getSingleResult());
+    }
+
+    @Test
+    void testAddHorseBudget() throws Exception {
+        budget.atMost(4, 0, () -> service.addHorse(stable, "Extra", "Arab", HorseType.GORACOKRWISTY,
+                HorseCondition.ZDROWY, 4, 100.0, 400.0, 150.0, null, new Date()));
+        Horse data = new Horse("Extra 2", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 100.0, 400.0, 150.0, null, null);
+        budget.atMost(5, 1, () -> service.addHorse(stable.getId(), data));
+    }
+
+    @Test
+    void testImportHorsesBudget() throws Exception {
+        List<HorseImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < HORSES; i++) {
+            rows.add(HorseImportRow.valid(i + 1, stable.getId(), new Horse("Imported-" + i, "Fjord",
+                    HorseType.ZIMNOKRWISTY, HorseCondition.ZDROWY, 5, 900.0, 500.0, 150.0, null, null)));
+        }
+        budget.atMost(6, 0, () -> service.importHorses(rows));
+    }
+
+    @Test
+    void testRemoveHorseBudget() throws Exception {
+        Horse first = service.addHorse(stable, "Unrated", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 100.0, 400.0, 150.0, null, new Date());
+        budget.atMost(3, 1, () -> service.removeHorse(first.getId()));
+
+        Horse second = service.addHorse(stable, "Unrated 2", "Arab", HorseType.GORACOKRWISTY, HorseCondition.ZDROWY,
+                4, 100.0, 400.0, 150.0, null, new Date());
+        budget.atMost(3, 1, () -> service.removeHorse(stable, second));
+    }
+
+    @Test
+    void testChangeHorseStatusBudget() throws Exception {
+        budget.atMost(2, 1, () -> service.changeHorseStatus(horses.get(0).getId(), HorseCondition.CHORY));
+        budget.atMost(1, 1, () -> service.changeHorseStatus(horses.get(0).getId(), HorseCondition.CHORY));
+    }
+
+    @Test
+    void testAddRatingBudget() throws Exception {
+        budget.atMost(3, 0, () -> service.addRatingToHorse(horses.get(0), 5, "ok"));
+        budget.atMost(4, 1, () -> service.addRatingToHorse(horses.get(1).getId(), 5, "ok"));
+    }
+
+    @Test
+    void testAddRatingsBatchBudget() throws Exception {
+        List<PendingRating> ratings = new ArrayList<>();
+        long sequence = 0;
+        for (Horse horse : horses) {
+            ratings.add(new PendingRating(++sequence, horse.getId(), (int) (sequence % 6), "batch", new Date()));
+        }
+        budget.atMost(9, 0, () -> service.addRatingsBatch(ratings));
+    }
+}